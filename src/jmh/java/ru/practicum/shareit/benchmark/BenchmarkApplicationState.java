@@ -0,0 +1,169 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingPhaseTransitioner;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Поднимает приложение без веб-слоя на H2 (профиль test) и заполняет базу данными
+ * примерно боевого объёма. Один экземпляр на форк JMH, общий для всех потоков.
+ * Логирование приложения понижено до WARN, чтобы вывод в консоль не попадал в замеры.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkApplicationState {
+
+    public static final int USERS = 2_000;
+    public static final int OWNERS = 200;
+    public static final int ITEMS_PER_OWNER = 50;
+    public static final int ITEMS = OWNERS * ITEMS_PER_OWNER;
+    public static final int AVAILABLE_ITEMS = ITEMS - ITEMS / 10;
+    // Объём бронирований можно поднять для отдельных бенчмарков: -Dshareit.benchmark.bookings=1000000
+    public static final int BOOKINGS = Integer.getInteger("shareit.benchmark.bookings", 100_000);
+    public static final int COMMENTS = 20_000;
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String[] ITEM_NAMES = {
+        "Drill", "Saw", "Ladder", "Tent", "Kayak", "Projector", "Camera", "Bicycle", "Grill", "Vacuum"
+    };
+    private static final String[] ITEM_QUALIFIERS = {
+        "cordless", "heavy duty", "compact", "professional", "family", "portable", "electric", "vintage"
+    };
+
+    private ConfigurableApplicationContext context;
+    private LocalDateTime seededAt;
+
+    @Setup(Level.Trial)
+    public void start() {
+        start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Запуск с веб-слоем нужен нагрузочному тесту; дополнительные аргументы перекрывают настройки профиля test.
+     */
+    public void start(WebApplicationType webApplicationType, String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                // Аргументы командной строки перекрывают уровни логирования из application-test.properties
+                "--logging.level.root=WARN",
+                "--logging.level.ru.practicum.shareit=WARN",
+                "--logging.level.org.springframework.orm.jpa=WARN",
+                "--logging.level.org.springframework.transaction=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "--spring.jpa.show-sql=false"));
+        arguments.addAll(List.of(args));
+
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(webApplicationType)
+                .profiles("test")
+                .run(arguments.toArray(String[]::new));
+
+        seededAt = LocalDateTime.now();
+        seed(context.getBean(JdbcTemplate.class), new Random(42));
+        context.getBean(ItemSearchIndex.class).rebuild();
+        context.getBean(BookingPhaseTransitioner.class).advance();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public LocalDateTime getSeededAt() {
+        return seededAt;
+    }
+
+    /**
+     * Владельцы — пользователи 1..OWNERS, у каждого ITEMS_PER_OWNER вещей подряд.
+     * Арендаторы — остальные пользователи.
+     */
+    public static long ownerOfItem(long itemId) {
+        return (itemId - 1) / ITEMS_PER_OWNER + 1;
+    }
+
+    /**
+     * Каждая десятая вещь недоступна. Возвращает id доступной вещи с номером index (по кругу).
+     */
+    public static long availableItem(long index) {
+        long position = index % AVAILABLE_ITEMS;
+        return position + position / 9 + 1;
+    }
+
+    public static long randomBooker(Random random) {
+        return OWNERS + 1 + random.nextInt(USERS - OWNERS);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, Random random) {
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@shareit.test"});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>(ITEMS);
+        for (long id = 1; id <= ITEMS; id++) {
+            String name = ITEM_NAMES[random.nextInt(ITEM_NAMES.length)];
+            String qualifier = ITEM_QUALIFIERS[random.nextInt(ITEM_QUALIFIERS.length)];
+            items.add(new Object[]{id, name + " " + id, qualifier + " " + name.toLowerCase() + " for rent",
+                    id % 10 != 0, ownerOfItem(id)});
+        }
+        batchInsert(jdbcTemplate,
+                "INSERT INTO items (id, name, description, is_available, owner_id) VALUES (?, ?, ?, ?, ?)", items);
+
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Object[]> bookings = new ArrayList<>(BOOKINGS);
+        for (long id = 1; id <= BOOKINGS; id++) {
+            // Бронирования распределены на год назад и полгода вперёд
+            LocalDateTime start = seededAt.minusDays(365).plusHours(random.nextInt(545 * 24));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+            BookingStatus status = random.nextInt(4) > 0
+                    ? BookingStatus.APPROVED
+                    : statuses[random.nextInt(statuses.length)];
+            bookings.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(end),
+                    1 + random.nextInt(ITEMS), randomBooker(random), status.name()});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>(COMMENTS);
+        for (long id = 1; id <= COMMENTS; id++) {
+            comments.add(new Object[]{id, "Comment " + id, 1 + random.nextInt(ITEMS), randomBooker(random),
+                    Timestamp.valueOf(seededAt.minusMinutes(random.nextInt(365 * 24 * 60)))});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO comments (id, text, item_id, author_id, created) " +
+                "VALUES (?, ?, ?, ?, ?)", comments);
+        jdbcTemplate.update("UPDATE items SET comment_count = " +
+                "(SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id)");
+
+        // Последовательности сдвигаются за вставленные id с запасом на размер пула Hibernate
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (USERS + 100));
+        jdbcTemplate.execute("ALTER SEQUENCE items_seq RESTART WITH " + (ITEMS + 100));
+        jdbcTemplate.execute("ALTER SEQUENCE bookings_seq RESTART WITH " + (BOOKINGS + 100));
+        jdbcTemplate.execute("ALTER TABLE comments ALTER COLUMN id RESTART WITH " + (COMMENTS + 1));
+    }
+
+    private static void batchInsert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
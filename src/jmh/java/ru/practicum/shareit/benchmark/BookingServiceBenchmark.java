@@ -0,0 +1,61 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private BookingService bookingService;
+    private LocalDateTime slotsStart;
+
+    // Новые бронирования занимают непересекающиеся двухчасовые слоты после засеянного периода
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkApplicationState application) {
+        bookingService = application.getBean(BookingService.class);
+        slotsStart = application.getSeededAt().plusYears(1);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getOwnerBookings(OwnerQuery query) {
+        long ownerId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkApplicationState.OWNERS);
+        return bookingService.getOwnerBookings(ownerId, query.state, 0, 10);
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking() {
+        long slot = nextSlot.getAndIncrement();
+        long itemId = BenchmarkApplicationState.availableItem(slot);
+        LocalDateTime start = slotsStart.plusHours(2 * (slot / BenchmarkApplicationState.AVAILABLE_ITEMS));
+
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusHours(1))
+                .build();
+        long bookerId = BenchmarkApplicationState.randomBooker(ThreadLocalRandom.current());
+        return bookingService.createBooking(bookingDto, bookerId);
+    }
+
+    @State(Scope.Benchmark)
+    public static class OwnerQuery {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        private BookingState state;
+    }
+}
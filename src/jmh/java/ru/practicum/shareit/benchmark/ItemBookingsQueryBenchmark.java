@@ -0,0 +1,110 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemLastNextBookings;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Последнее и следующее бронирования для страницы вещей владельца: прежняя пара запросов
+ * с подзапросами MAX/MIN(id) против одного запроса с ROW_NUMBER(). Форк поднимает базу
+ * до 10 тыс. вещей и 1 млн бронирований.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dshareit.benchmark.bookings=1000000"})
+@State(Scope.Benchmark)
+public class ItemBookingsQueryBenchmark {
+
+    private static final String LAST_BOOKINGS_BY_MAX_ID = "SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.end < :now " +
+            "AND b.id IN (" +
+            "   SELECT MAX(b2.id) FROM Booking b2 " +
+            "   WHERE b2.item.id = b.item.id " +
+            "   AND b2.status = 'APPROVED' " +
+            "   AND b2.end < :now " +
+            "   GROUP BY b2.item.id" +
+            ")";
+
+    private static final String NEXT_BOOKINGS_BY_MIN_ID = "SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start > :now " +
+            "AND b.id IN (" +
+            "   SELECT MIN(b2.id) FROM Booking b2 " +
+            "   WHERE b2.item.id = b.item.id " +
+            "   AND b2.status = 'APPROVED' " +
+            "   AND b2.start > :now " +
+            "   GROUP BY b2.item.id" +
+            ")";
+
+    private BookingRepository bookingRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkApplicationState application) {
+        bookingRepository = application.getBean(BookingRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                application.getBean(EntityManagerFactory.class));
+        readOnlyTransaction = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        now = application.getSeededAt();
+    }
+
+    @Benchmark
+    public List<Booking> subqueryPair(Page page) {
+        List<Long> itemIds = page.randomOwnerItems();
+        return readOnlyTransaction.execute(status -> {
+            List<Booking> bookings = new ArrayList<>(findBookings(LAST_BOOKINGS_BY_MAX_ID, itemIds));
+            bookings.addAll(findBookings(NEXT_BOOKINGS_BY_MIN_ID, itemIds));
+            return bookings;
+        });
+    }
+
+    @Benchmark
+    public List<ItemLastNextBookings> windowFunction(Page page) {
+        List<Long> itemIds = page.randomOwnerItems();
+        return readOnlyTransaction.execute(status -> bookingRepository.findLastAndNextBookingsForItems(itemIds, now));
+    }
+
+    private List<Booking> findBookings(String query, List<Long> itemIds) {
+        return entityManager.createQuery(query, Booking.class)
+                .setParameter("itemIds", itemIds)
+                .setParameter("now", now)
+                .getResultList();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"10", "50"})
+        private int size;
+
+        // Первая страница вещей случайного владельца, как в getAllItemsByOwner
+        List<Long> randomOwnerItems() {
+            long ownerId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkApplicationState.OWNERS);
+            long firstItemId = (ownerId - 1) * BenchmarkApplicationState.ITEMS_PER_OWNER + 1;
+            return LongStream.range(firstItemId, firstItemId + size)
+                    .boxed()
+                    .collect(Collectors.toList());
+        }
+    }
+}
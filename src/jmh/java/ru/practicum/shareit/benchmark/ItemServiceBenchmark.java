@@ -0,0 +1,67 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemServiceBenchmark {
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkApplicationState application) {
+        itemService = application.getBean(ItemService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllItemsByOwner(Page page) {
+        long ownerId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkApplicationState.OWNERS);
+        return itemService.getAllItemsByOwner(ownerId, 0, page.size);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItems(Search search) {
+        return itemService.searchItems(search.text, 0, 10);
+    }
+
+    @Benchmark
+    public ItemDto getItemByIdAsOwner() {
+        long itemId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkApplicationState.ITEMS);
+        return itemService.getItemById(itemId, BenchmarkApplicationState.ownerOfItem(itemId));
+    }
+
+    @Benchmark
+    public ItemDto getItemByIdAsViewer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long itemId = 1 + random.nextInt(BenchmarkApplicationState.ITEMS);
+        return itemService.getItemById(itemId, BenchmarkApplicationState.randomBooker(random));
+    }
+
+    @Benchmark
+    public ItemDto getItemCard() {
+        long itemId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkApplicationState.ITEMS);
+        return itemService.getItemCard(itemId, 10);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"10", "50"})
+        private int size;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Search {
+        @Param({"drill", "cordless saw", "port"})
+        private String text;
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный тест веб-слоя. Поднимает приложение на H2 дважды: на пуле платформенных потоков Tomcat
+ * и на виртуальных потоках (spring.threads.virtual.enabled). В обоих режимах одинаковое число клиентов
+ * одновременно запрашивает /bookings и /items/search. Для каждого эндпоинта печатаются пропускная
+ * способность, p50 и p99.
+ * <p>
+ * Запуск: mvn -Pjmh test-compile exec:exec@load-test [-Dload.args="2000 30"], где аргументы — число
+ * одновременных клиентов и длительность замера в секундах. Базу можно заменить на PostgreSQL
+ * через -Dspring.datasource.url=...
+ */
+public class LoadTestRunner {
+
+    private static final int DEFAULT_CLIENTS = 2_000;
+    private static final int DEFAULT_SECONDS = 30;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final String BOOKINGS = "/bookings";
+    private static final String SEARCH = "/items/search";
+    private static final String[] SEARCH_TERMS = {"drill", "cordless saw", "port", "tent", "vintage camera"};
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %-14s %9s %7s %9s %9s %9s",
+                "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms"));
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            report.addAll(run(virtualThreads, clients, duration));
+        }
+
+        System.out.println();
+        System.out.println("Clients: " + clients + ", measurement: " + duration.toSeconds() + " s");
+        report.forEach(System.out::println);
+    }
+
+    private static List<String> run(boolean virtualThreads, int clients, Duration duration) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        BenchmarkApplicationState application = new BenchmarkApplicationState();
+        application.start(WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // In-memory база H2 переживает закрытие контекста, поэтому у каждого режима своя
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(httpExecutor)
+                     .connectTimeout(REQUEST_TIMEOUT)
+                     .build()) {
+            int port = application.getBean(Environment.class).getRequiredProperty("local.server.port", Integer.class);
+            URI base = URI.create("http://localhost:" + port);
+
+            System.out.println("Warming up " + mode + " mode...");
+            drive(client, base, clients, WARMUP);
+            System.out.println("Measuring " + mode + " mode...");
+            Map<String, EndpointStats> stats = drive(client, base, clients, duration);
+
+            List<String> lines = new ArrayList<>();
+            stats.forEach((endpoint, endpointStats) -> lines.add(endpointStats.format(mode, endpoint, duration)));
+            return lines;
+        } finally {
+            application.stop();
+        }
+    }
+
+    private static Map<String, EndpointStats> drive(HttpClient client, URI base, int clients, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<String, EndpointStats>>> results = new ArrayList<>(clients);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> runClient(client, base, deadline)));
+            }
+        }
+
+        Map<String, EndpointStats> total = new TreeMap<>();
+        for (Future<Map<String, EndpointStats>> result : results) {
+            result.get().forEach((endpoint, stats) ->
+                    total.computeIfAbsent(endpoint, key -> new EndpointStats()).merge(stats));
+        }
+        return total;
+    }
+
+    private static Map<String, EndpointStats> runClient(HttpClient client, URI base, long deadline) {
+        Map<String, EndpointStats> stats = Map.of(BOOKINGS, new EndpointStats(), SEARCH, new EndpointStats());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline) {
+            boolean bookings = random.nextBoolean();
+            HttpRequest request = bookings
+                    ? HttpRequest.newBuilder(base.resolve(BOOKINGS + "?state=ALL&size=10"))
+                            .header("X-Sharer-User-Id", String.valueOf(BenchmarkApplicationState.randomBooker(random)))
+                            .timeout(REQUEST_TIMEOUT)
+                            .build()
+                    : HttpRequest.newBuilder(base.resolve(SEARCH + "?size=10&text="
+                                    + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)],
+                                    StandardCharsets.UTF_8)))
+                            .timeout(REQUEST_TIMEOUT)
+                            .build();
+            EndpointStats endpointStats = stats.get(bookings ? BOOKINGS : SEARCH);
+
+            long startedAt = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                int status = response.statusCode();
+                endpointStats.record(System.nanoTime() - startedAt, status == 200 ? null : "HTTP " + status);
+            } catch (IOException e) {
+                endpointStats.record(System.nanoTime() - startedAt, e.getClass().getSimpleName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return stats;
+    }
+
+    private static class EndpointStats {
+        private final List<Long> latencies = new ArrayList<>();
+        private final Map<String, Long> errors = new TreeMap<>();
+
+        // error == null для успешного ответа, иначе HTTP-статус или класс исключения
+        void record(long latencyNanos, String error) {
+            latencies.add(latencyNanos);
+            if (error != null) {
+                errors.merge(error, 1L, Long::sum);
+            }
+        }
+
+        void merge(EndpointStats other) {
+            latencies.addAll(other.latencies);
+            other.errors.forEach((error, count) -> errors.merge(error, count, Long::sum));
+        }
+
+        String format(String mode, String endpoint, Duration duration) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            long errorCount = errors.values().stream().mapToLong(Long::longValue).sum();
+            return String.format("%-9s %-14s %9d %7d %9.1f %9.1f %9.1f %s",
+                    mode, endpoint, sorted.length, errorCount,
+                    (sorted.length - errorCount) / (double) duration.toSeconds(),
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                    errors.isEmpty() ? "" : errors);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.ItemBookingTimeline;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статические преобразования сущность ↔ DTO без базы и Spring.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    @Param({"0", "10"})
+    private int commentCount;
+
+    private Item item;
+    private Booking nextBooking;
+    private ItemBookingTimeline timeline;
+    private BookingDto bookingDto;
+    private List<CommentResponseDto> comments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = new User(1L, "owner", "owner@shareit.test", 0L);
+        User booker = new User(2L, "booker", "booker@shareit.test", 0L);
+
+        item = Item.builder()
+                .id(10L)
+                .name("Drill")
+                .description("Cordless drill for rent")
+                .available(true)
+                .owner(owner)
+                .build();
+        nextBooking = new Booking(101L, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.APPROVED,
+                BookingPhase.FUTURE, 0L);
+        // Лента бронирований владельца — то, что карточка и список вещей передают в маппер
+        timeline = new ItemBookingTimeline();
+        timeline.setItemId(item.getId());
+        timeline.setLastBookingId(100L);
+        timeline.setLastBookerId(booker.getId());
+        timeline.setNextBookingId(nextBooking.getId());
+        timeline.setNextBookerId(booker.getId());
+        timeline.setValidUntil(nextBooking.getStart());
+
+        bookingDto = BookingDto.builder()
+                .itemId(10L)
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .build();
+
+        comments = new ArrayList<>(commentCount);
+        for (long id = 1; id <= commentCount; id++) {
+            comments.add(new CommentResponseDto(id, "Comment " + id, "booker", now.minusHours(id)));
+        }
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToResponseDto() {
+        return BookingMapper.toBookingResponseDto(nextBooking);
+    }
+
+    @Benchmark
+    public Booking bookingDtoToBooking() {
+        return BookingMapper.toBooking(bookingDto);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemDto itemToDtoWithBookingsAndComments() {
+        return ItemMapper.toItemDto(item, timeline, comments);
+    }
+}
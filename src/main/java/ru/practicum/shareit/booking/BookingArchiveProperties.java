@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.archive")
+public class BookingArchiveProperties {
+    private boolean enabled = true;
+    // Бронирования, завершившиеся раньше чем retention назад, переносятся в bookings_archive
+    private Duration retention = Duration.ofDays(365);
+    private Duration interval = Duration.ofHours(1);
+    private int batchSize = 500;
+}
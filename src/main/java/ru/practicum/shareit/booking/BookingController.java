@@ -6,13 +6,22 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.BatchRowResult;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -22,7 +31,10 @@ import java.util.List;
 @Validated
 public class BookingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final BookingEventsProperties eventsProperties;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -40,30 +52,105 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BatchRowResult<BookingResponseDto>> approveBookings(
+            @RequestBody List<Long> bookingIds,
+            @RequestParam boolean approved,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("PATCH /bookings/batch - approve {} bookings: {} by user ID: {}", bookingIds.size(), approved, userId);
+        return bookingService.approveBookings(bookingIds, userId, approved);
+    }
+
+    // Вместо опроса списков: событие приходит, когда бронирование создано или сменило статус.
+    // Имя события — новый статус бронирования
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BookingResponseDto>> getBookingEvents(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("GET /bookings/events - subscribe to booking events for user ID: {}", userId);
+
+        Flux<ServerSentEvent<BookingResponseDto>> events = bookingService.getBookingEvents(userId)
+                .map(booking -> ServerSentEvent.builder(booking)
+                        .event(booking.getStatus().name())
+                        .build());
+        // Первый пульс уходит сразу: клиент получает заголовки ответа, не дожидаясь события
+        Flux<ServerSentEvent<BookingResponseDto>> heartbeats = Flux.interval(Duration.ZERO,
+                        eventsProperties.getHeartbeat())
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<BookingResponseDto>builder().comment("heartbeat").build());
+
+        // Предвыборка 1: события ждут в буфере подписчика, а не в очереди merge
+        return Flux.merge(1, events, heartbeats);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(@PathVariable @Positive Long bookingId,
-                                         @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+                                         @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                         WebRequest request) {
         log.info("GET /bookings/{} - get booking by user ID: {}", bookingId, userId);
+
+        if (request.checkNotModified(bookingService.getBookingETag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(
             @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
             @RequestParam(defaultValue = "ALL") BookingState state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size) {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("GET /bookings - get user bookings for user ID: {}, state: {}", userId, state);
-        return bookingService.getUserBookings(userId, state, from, size);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getUserBookings(userId, state, from, size));
+        }
+
+        List<BookingResponseDto> bookings = bookingService.getUserBookings(userId, state,
+                BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(
             @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
             @RequestParam(defaultValue = "ALL") BookingState state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size) {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("GET /bookings/owner - get owner bookings for user ID: {}, state: {}", userId, state);
-        return bookingService.getOwnerBookings(userId, state, from, size);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getOwnerBookings(userId, state, from, size));
+        }
+
+        List<BookingResponseDto> bookings = bookingService.getOwnerBookings(userId, state,
+                BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getUserBookingSummary(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("GET /bookings/summary - get booking summary for user ID: {}", userId);
+        return bookingService.getUserBookingSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerBookingSummary(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("GET /bookings/owner/summary - get owner booking summary for user ID: {}", userId);
+        return bookingService.getOwnerBookingSummary(userId);
+    }
+
+    // Неполная страница — последняя, курсор для продолжения не нужен
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+
+        String nextCursor = BookingCursor.after(bookings.get(bookings.size() - 1)).encode();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor)
+                .body(bookings);
     }
 }
\ No newline at end of file
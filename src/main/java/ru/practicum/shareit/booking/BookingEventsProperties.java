@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.events")
+public class BookingEventsProperties {
+    // Сколько событий копится для подписчика, который не успевает их читать
+    private int bufferSize = 256;
+    // Что делать при переполнении: DROP_OLDEST, DROP_LATEST или ERROR (закрыть поток, клиент переподключится)
+    private BufferOverflowStrategy overflowStrategy = BufferOverflowStrategy.DROP_OLDEST;
+    // Пульс держит соединение открытым через прокси и выявляет отключившихся клиентов
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
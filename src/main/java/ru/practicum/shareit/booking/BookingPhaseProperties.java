@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.phase")
+public class BookingPhaseProperties {
+    // Период запуска BookingPhaseTransitioner — на столько фаза может отставать от часов
+    private Duration interval = Duration.ofSeconds(10);
+    private int batchSize = 1_000;
+}
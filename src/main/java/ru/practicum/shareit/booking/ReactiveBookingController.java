@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.ReactiveBookingService;
+import ru.practicum.shareit.config.ReactiveDatabaseProperties;
+
+/**
+ * Реактивная версия списков из {@link BookingController} поверх R2DBC.
+ * Поток запросов не держится ни на соединении JDBC, ни на ожидании базы.
+ * С Accept: application/x-ndjson бронирования отдаются по мере чтения из базы.
+ * Курсор принимается тот же, что выдаёт BookingController в X-Next-Cursor.
+ */
+@RestController
+@RequestMapping(path = "/reactive/bookings",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+@ConditionalOnProperty(prefix = ReactiveDatabaseProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ReactiveBookingController {
+
+    private final ReactiveBookingService reactiveBookingService;
+
+    @GetMapping
+    public Flux<BookingResponseDto> getUserBookings(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /reactive/bookings - get user bookings for user ID: {}, state: {}", userId, state);
+
+        if (cursor == null) {
+            return reactiveBookingService.getUserBookings(userId, state, from, size);
+        }
+        return reactiveBookingService.getUserBookings(userId, state, BookingCursor.decode(cursor), size);
+    }
+
+    @GetMapping("/owner")
+    public Flux<BookingResponseDto> getOwnerBookings(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /reactive/bookings/owner - get owner bookings for user ID: {}, state: {}", userId, state);
+
+        if (cursor == null) {
+            return reactiveBookingService.getOwnerBookings(userId, state, from, size);
+        }
+        return reactiveBookingService.getOwnerBookings(userId, state, BookingCursor.decode(cursor), size);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Бронирование создано или сменило статус. Публикуется внутри транзакции,
+ * подписчикам уходит только после её коммита.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    private final BookingResponseDto booking;
+
+    // Событие видят арендатор и владелец вещи
+    public boolean concerns(Long userId) {
+        return userId.equals(booking.getBooker().getId()) || userId.equals(booking.getItem().getOwnerId());
+    }
+}
@@ -21,4 +21,14 @@ public class BookingResponseDto {
     private BookingStatus status;
     private UserDto booker;
     private ItemDto item;
+
+    // Конструктор для JPQL-проекций: вложенные DTO собираются из плоского набора колонок
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Long bookerId, String bookerName, String bookerEmail,
+                              Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              Long itemOwnerId, Long itemRequestId) {
+        this(id, start, end, status,
+                new UserDto(bookerId, bookerName, bookerEmail),
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemOwnerId, itemRequestId));
+    }
 }
\ No newline at end of file
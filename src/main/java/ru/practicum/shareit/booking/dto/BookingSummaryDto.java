@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Число бронирований в каждом состоянии {@link ru.practicum.shareit.booking.model.BookingState}
+ * для счётчиков на вкладках списка.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingSummaryDto {
+    private Long all;
+    private Long current;
+    private Long past;
+    private Long future;
+    private Long waiting;
+    private Long rejected;
+
+    // В архиве только завершившиеся APPROVED и CANCELED бронирования: они входят в ALL и PAST
+    public BookingSummaryDto plusArchived(long archived) {
+        return new BookingSummaryDto(all + archived, current, past + archived, future, waiting, rejected);
+    }
+}
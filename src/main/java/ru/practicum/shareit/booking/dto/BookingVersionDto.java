@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Версии строк, из которых собирается {@link BookingResponseDto}, и участники для проверки доступа.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingVersionDto {
+    private Long bookingId;
+    private Long version;
+    private Long bookerId;
+    private Long bookerVersion;
+    private Long itemVersion;
+    private Long itemOwnerId;
+}
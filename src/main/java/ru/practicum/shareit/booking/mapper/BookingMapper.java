@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -24,6 +26,17 @@ public class BookingMapper {
                 .build();
     }
 
+    // Архивная строка в виде Booking для мест, которые показывают последнее бронирование вещи
+    public static Booking toBooking(ArchivedBooking archivedBooking) {
+        if (archivedBooking == null) {
+            return null;
+        }
+
+        return new Booking(archivedBooking.getId(), archivedBooking.getStart(), archivedBooking.getEnd(),
+                archivedBooking.getItem(), archivedBooking.getBooker(), archivedBooking.getStatus(),
+                BookingPhase.PAST, archivedBooking.getVersion());
+    }
+
     public static Booking toBooking(BookingDto bookingDto) {
         if (bookingDto == null) {
             return null;
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Давно завершённое бронирование, перенесённое из bookings в bookings_archive
+ * (см. {@link ru.practicum.shareit.booking.service.BookingArchiver}). Строки архива не изменяются.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "idx_bookings_archive_booker_start", columnList = "booker_id, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_archive_item_start", columnList = "item_id, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_archive_booker_item_status_end",
+                columnList = "booker_id, item_id, status, end_date"),
+        @Index(name = "idx_bookings_archive_item_status_end", columnList = "item_id, status, end_date")
+})
+@NamedEntityGraph(name = ArchivedBooking.WITH_ITEM_AND_BOOKER, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
+public class ArchivedBooking {
+
+    public static final String WITH_ITEM_AND_BOOKER = "ArchivedBooking.withItemAndBooker";
+
+    // id сохраняется из bookings, поэтому генератора нет
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BookingStatus status;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -13,11 +13,31 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "bookings")
+// Индексы повторяют формы запросов BookingRepository; ddl-auto: update создаёт недостающие
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_booker_start", columnList = "booker_id, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_booker_status_start", columnList = "booker_id, status, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_item_start", columnList = "item_id, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_booker_phase_start", columnList = "booker_id, phase, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_item_phase_start", columnList = "item_id, phase, start_date DESC, id DESC"),
+        @Index(name = "idx_bookings_phase_start", columnList = "phase, start_date"),
+        @Index(name = "idx_bookings_phase_end", columnList = "phase, end_date"),
+        @Index(name = "idx_bookings_item_status_start", columnList = "item_id, status, start_date"),
+        @Index(name = "idx_bookings_item_status_end", columnList = "item_id, status, end_date"),
+        @Index(name = "idx_bookings_booker_item_status_end", columnList = "booker_id, item_id, status, end_date")
+})
+@NamedEntityGraph(name = Booking.WITH_ITEM_AND_BOOKER, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 public class Booking {
 
+    // Граф для выдачи BookingResponseDto: вещь и арендатор читаются тем же запросом
+    public static final String WITH_ITEM_AND_BOOKER = "Booking.withItemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -38,4 +58,15 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     private BookingStatus status;
+
+    // Фаза пишется при создании, дальше её меняет только BookingPhaseTransitioner массовым UPDATE.
+    // updatable = false не даёт сохранению устаревшей сущности откатить фазу назад
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, updatable = false, length = 10,
+            columnDefinition = "VARCHAR(10) DEFAULT 'FUTURE'")
+    private BookingPhase phase;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
 }
\ No newline at end of file
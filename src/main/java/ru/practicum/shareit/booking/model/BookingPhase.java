@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Положение бронирования во времени. Хранится в bookings.phase и сдвигается только вперёд
+ * (FUTURE → CURRENT → PAST) планировщиком {@link ru.practicum.shareit.booking.service.BookingPhaseTransitioner}.
+ */
+public enum BookingPhase {
+    FUTURE,     // Ещё не началось
+    CURRENT,    // Идёт сейчас
+    PAST;       // Завершилось
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        return start.isAfter(now) ? FUTURE : CURRENT;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingVersionDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Выборки из архива повторяют форму соответствующих запросов {@link BookingRepository}:
+ * та же проекция, тот же порядок (start DESC, id DESC) и курсор, чтобы результаты можно было слить.
+ */
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    String SELECT_RESPONSE_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, " +
+            "bk.id, bk.name, bk.email, " +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "FROM ArchivedBooking b JOIN b.booker bk JOIN b.item i ";
+
+    // Переносит строки в архив как есть, с тем же id и версией
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, version, archived_at) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, version, :archivedAt " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @EntityGraph(ArchivedBooking.WITH_ITEM_AND_BOOKER)
+    Optional<ArchivedBooking> findWithItemAndBookerById(Long bookingId);
+
+    // Версия архивной строки переносится как есть, поэтому ETag после архивации не меняется
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionDto(" +
+            "b.id, b.version, bk.id, bk.version, i.version, i.owner.id) " +
+            "FROM ArchivedBooking b JOIN b.booker bk JOIN b.item i " +
+            "WHERE b.id = :bookingId")
+    Optional<BookingVersionDto> findVersionById(@Param("bookingId") Long bookingId);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE bk.id = :bookerId " +
+            BookingRepository.AFTER_CURSOR +
+            BookingRepository.ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByBookerId(@Param("bookerId") Long bookerId,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE i.owner.id = :ownerId " +
+            BookingRepository.AFTER_CURSOR +
+            BookingRepository.ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByOwnerId(@Param("ownerId") Long ownerId,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable pageable);
+
+    long countByBookerId(Long bookerId);
+
+    @Query("SELECT COUNT(b.id) FROM ArchivedBooking b JOIN b.item i WHERE i.owner.id = :ownerId")
+    long countByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
+
+    // Последние бронирования вещей, у которых в bookings завершённых подтверждённых не осталось
+    // Как и в ленте одной вещи, последним считается бронирование с самым поздним концом
+    @Query(value = "SELECT id, start_date, end_date, item_id, booker_id, status, version, archived_at FROM (" +
+            "   SELECT a.*, ROW_NUMBER() OVER (PARTITION BY a.item_id ORDER BY a.end_date DESC, a.id DESC) AS rn " +
+            "   FROM bookings_archive a " +
+            "   WHERE a.item_id IN (:itemIds) " +
+            "   AND a.status = 'APPROVED'" +
+            ") ranked " +
+            "WHERE rn = 1", nativeQuery = true)
+    List<ArchivedBooking> findLastBookingsForItems(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -1,135 +1,233 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.BookingVersionDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemLastNextBookings;
+import ru.practicum.shareit.item.dto.ItemTimelineBooking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :bookerId " +
-            "AND b.start <= :currentTime " +
-            "AND b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
-    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId,
-                                        @Param("currentTime") LocalDateTime currentTime,
-                                        Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId,
-                                                                LocalDateTime currentTime,
-                                                                Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId,
-                                                                 LocalDateTime currentTime,
-                                                                 Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId,
-                                                             BookingStatus status,
-                                                             Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = :ownerId " +
-            "AND b.start <= :currentTime " +
-            "AND b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
-    List<Booking> findCurrentByOwnerId(@Param("ownerId") Long ownerId,
-                                       @Param("currentTime") LocalDateTime currentTime,
-                                       Pageable pageable);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = :ownerId " +
-            "AND b.end < :currentTime " +
-            "ORDER BY b.start DESC")
-    List<Booking> findPastByOwnerId(@Param("ownerId") Long ownerId,
-                                    @Param("currentTime") LocalDateTime currentTime,
-                                    Pageable pageable);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = :ownerId " +
-            "AND b.start > :currentTime " +
-            "ORDER BY b.start DESC")
-    List<Booking> findFutureByOwnerId(@Param("ownerId") Long ownerId,
-                                      @Param("currentTime") LocalDateTime currentTime,
-                                      Pageable pageable);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = :ownerId " +
+    // Условие «после курсора» для выборок в порядке (start DESC, id DESC)
+    String AFTER_CURSOR = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) ";
+
+    String ORDER_BY_START_DESC = "ORDER BY b.start DESC, b.id DESC";
+
+    // Проекция сразу в BookingResponseDto: только нужные колонки, без управляемых сущностей
+    String SELECT_RESPONSE_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, " +
+            "bk.id, bk.name, bk.email, " +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "FROM Booking b JOIN b.booker bk JOIN b.item i ";
+
+    // Счётчики всех состояний одним проходом по бронированиям пользователя (условная агрегация).
+    // Условия совпадают с выборками findBy*Id, findBy*IdAndPhase и findBy*IdAndStatus
+    String SELECT_SUMMARY_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingSummaryDto(" +
+            "COUNT(b.id), " +
+            "COALESCE(SUM(CASE WHEN b.phase = ru.practicum.shareit.booking.model.BookingPhase.CURRENT " +
+            "THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = ru.practicum.shareit.booking.model.BookingPhase.PAST " +
+            "THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.phase = ru.practicum.shareit.booking.model.BookingPhase.FUTURE " +
+            "THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "THEN 1L ELSE 0L END), 0L), " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "THEN 1L ELSE 0L END), 0L)) ";
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionDto(" +
+            "b.id, b.version, bk.id, bk.version, i.version, i.owner.id) " +
+            "FROM Booking b JOIN b.booker bk JOIN b.item i " +
+            "WHERE b.id = :bookingId")
+    Optional<BookingVersionDto> findVersionById(@Param("bookingId") Long bookingId);
+
+    // Меняет статус только у бронирований, которые всё ещё ожидают решения.
+    // Массовый UPDATE обходит @Version, поэтому версия поднимается явно
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int updateWaitingStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    // Кандидаты на перевод в следующую фазу, порциями; см. BookingPhaseTransitioner
+    @Query("SELECT b.id FROM Booking b WHERE b.phase = :phase AND b.end < :currentTime")
+    List<Long> findIdsByPhaseAndEndBefore(@Param("phase") BookingPhase phase,
+                                          @Param("currentTime") LocalDateTime currentTime,
+                                          Pageable pageable);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.phase = :phase AND b.start <= :currentTime")
+    List<Long> findIdsByPhaseAndStartNotAfter(@Param("phase") BookingPhase phase,
+                                              @Param("currentTime") LocalDateTime currentTime,
+                                              Pageable pageable);
+
+    // Условие на исходную фазу делает перевод идемпотентным при параллельных запусках
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.phase = :target WHERE b.id IN :ids AND b.phase = :source")
+    int updatePhase(@Param("ids") Collection<Long> ids,
+                    @Param("source") BookingPhase source,
+                    @Param("target") BookingPhase target);
+
+    // Кандидаты на перенос в bookings_archive; см. BookingArchiver
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.phase = ru.practicum.shareit.booking.model.BookingPhase.PAST " +
+            "AND b.end < :cutoff AND b.status IN :statuses")
+    List<Long> findIdsToArchive(@Param("cutoff") LocalDateTime cutoff,
+                                @Param("statuses") Collection<BookingStatus> statuses,
+                                Pageable pageable);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_SUMMARY_DTO +
+            "FROM Booking b " +
+            "WHERE b.booker.id = :bookerId")
+    BookingSummaryDto summarizeByBookerId(@Param("bookerId") Long bookerId);
+
+    @Query(SELECT_SUMMARY_DTO +
+            "FROM Booking b JOIN b.item i " +
+            "WHERE i.owner.id = :ownerId")
+    BookingSummaryDto summarizeByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE bk.id = :bookerId " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByBookerId(@Param("bookerId") Long bookerId,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE bk.id = :bookerId " +
+            "AND b.phase = :phase " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByBookerIdAndPhase(@Param("bookerId") Long bookerId,
+                                                    @Param("phase") BookingPhase phase,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE bk.id = :bookerId " +
             "AND b.status = :status " +
-            "ORDER BY b.start DESC")
-    List<Booking> findByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
-                                         @Param("status") BookingStatus status,
-                                         Pageable pageable);
-
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start < :end " +
-            "AND b.end > :start")
-    List<Booking> findOverlappingBookings(@Param("itemId") Long itemId,
-                                          @Param("start") LocalDateTime start,
-                                          @Param("end") LocalDateTime end);
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                                     @Param("status") BookingStatus status,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE i.owner.id = :ownerId " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByOwnerId(@Param("ownerId") Long ownerId,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId,
+                                           Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.phase = :phase " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByOwnerIdAndPhase(@Param("ownerId") Long ownerId,
+                                                   @Param("phase") BookingPhase phase,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<BookingResponseDto> findByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                    @Param("status") BookingStatus status,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    // Пересечение с [start, end): начало раньше end и окончание позже start
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId,
+                                                             BookingStatus status,
+                                                             LocalDateTime end,
+                                                             LocalDateTime start);
 
     Optional<Booking> findFirstByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId,
                                                                         Long itemId,
                                                                         BookingStatus status,
                                                                         LocalDateTime currentTime);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id IN :itemIds " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.end < :now " +
-            "AND b.id IN (" +
-            "   SELECT MAX(b2.id) FROM Booking b2 " +
-            "   WHERE b2.item.id = b.item.id " +
-            "   AND b2.status = 'APPROVED' " +
-            "   AND b2.end < :now " +
-            "   GROUP BY b2.item.id" +
-            ")")
-    List<Booking> findLastBookingsForItems(@Param("itemIds") List<Long> itemIds,
-                                           @Param("now") LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id IN :itemIds " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start > :now " +
-            "AND b.id IN (" +
-            "   SELECT MIN(b2.id) FROM Booking b2 " +
-            "   WHERE b2.item.id = b.item.id " +
-            "   AND b2.status = 'APPROVED' " +
-            "   AND b2.start > :now " +
-            "   GROUP BY b2.item.id" +
-            ")")
-    List<Booking> findNextBookingsForItems(@Param("itemIds") List<Long> itemIds,
-                                           @Param("now") LocalDateTime now);
-
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.end < :now " +
-            "ORDER BY b.end DESC")
-    Optional<Booking> findLastBookingForItem(@Param("itemId") Long itemId,
-                                             @Param("now") LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start > :now " +
-            "ORDER BY b.start ASC")
-    Optional<Booking> findNextBookingForItem(@Param("itemId") Long itemId,
-                                             @Param("now") LocalDateTime now);
+    // Последнее и следующее бронирования вещей страницы за один проход: строки делятся на завершившиеся
+    // и будущие, ROW_NUMBER() выбирает в каждой группе ближайшую к now, затем группы сводятся в одну строку.
+    // Порядок тот же, что у ленты одной вещи: последнее — по концу, следующее — по началу
+    @Query(value = "SELECT ranked.item_id AS \"itemId\", " +
+            "MAX(CASE WHEN ranked.finished = 1 THEN ranked.id END) AS \"lastBookingId\", " +
+            "MAX(CASE WHEN ranked.finished = 1 THEN ranked.booker_id END) AS \"lastBookerId\", " +
+            "MAX(CASE WHEN ranked.finished = 0 THEN ranked.id END) AS \"nextBookingId\", " +
+            "MAX(CASE WHEN ranked.finished = 0 THEN ranked.booker_id END) AS \"nextBookerId\" " +
+            "FROM (" +
+            "   SELECT b.id, b.item_id, b.booker_id, " +
+            "   CASE WHEN b.end_date < :now THEN 1 ELSE 0 END AS finished, " +
+            "   ROW_NUMBER() OVER (PARTITION BY b.item_id, CASE WHEN b.end_date < :now THEN 1 ELSE 0 END " +
+            "       ORDER BY CASE WHEN b.end_date < :now THEN b.end_date END DESC, b.start_date, b.id) AS rn " +
+            "   FROM bookings b " +
+            "   WHERE b.item_id IN (:itemIds) " +
+            "   AND b.status = 'APPROVED' " +
+            "   AND (b.end_date < :now OR b.start_date > :now)" +
+            ") ranked " +
+            "WHERE ranked.rn = 1 " +
+            "GROUP BY ranked.item_id", nativeQuery = true)
+    List<ItemLastNextBookings> findLastAndNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                                               @Param("now") LocalDateTime now);
+
+    // Всё, из чего пересчитывается лента одной вещи, за один запрос: каждая ветка — поиск первой строки
+    // по индексу (item_id, status, start_date) или (item_id, status, end_date). Архив нужен, только если
+    // все завершённые бронирования вещи уже перенесены, но его ветка — такой же поиск одной строки
+    @Query(value = "(SELECT 'LAST' AS \"kind\", b.id AS \"id\", b.booker_id AS \"bookerId\", " +
+            "b.start_date AS \"startDate\", b.end_date AS \"endDate\" " +
+            "FROM bookings b " +
+            "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.end_date < :now " +
+            "ORDER BY b.end_date DESC LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT 'ARCHIVED', a.id, a.booker_id, a.start_date, a.end_date " +
+            "FROM bookings_archive a " +
+            "WHERE a.item_id = :itemId AND a.status = 'APPROVED' " +
+            "ORDER BY a.end_date DESC LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT 'NEXT', b.id, b.booker_id, b.start_date, b.end_date " +
+            "FROM bookings b " +
+            "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.start_date > :now " +
+            "ORDER BY b.start_date LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT 'ENDING', b.id, b.booker_id, b.start_date, b.end_date " +
+            "FROM bookings b " +
+            "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.end_date >= :now " +
+            "ORDER BY b.end_date LIMIT 1)", nativeQuery = true)
+    List<ItemTimelineBooking> findTimelineBookings(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
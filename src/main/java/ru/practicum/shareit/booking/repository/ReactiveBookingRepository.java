@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.ReactiveDatabaseProperties;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Реактивные аналоги выборок бронирований из {@link BookingRepository}: те же условия по состоянию,
+ * тот же порядок (start DESC, id DESC) и курсор, поэтому запросы попадают в те же составные индексы;
+ * для ALL и PAST каждая ветка UNION ALL с архивом отдельно идёт по индексу своей таблицы.
+ */
+@Repository
+@ConditionalOnProperty(prefix = ReactiveDatabaseProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ReactiveBookingRepository {
+
+    private static final String SELECT_RESPONSE_DTO = "SELECT b.id, b.start_date, b.end_date, b.status, " +
+            "bk.id AS booker_id, bk.name AS booker_name, bk.email AS booker_email, " +
+            "i.id AS item_id, i.name AS item_name, i.description AS item_description, " +
+            "i.is_available AS item_available, i.owner_id AS item_owner_id, i.request_id AS item_request_id " +
+            "FROM %s b " +
+            "JOIN users bk ON bk.id = b.booker_id " +
+            "JOIN items i ON i.id = b.item_id ";
+
+    private static final String AFTER_CURSOR = "AND (b.start_date < :cursorStart " +
+            "OR (b.start_date = :cursorStart AND b.id < :cursorId)) ";
+
+    private static final String ORDER_AND_LIMIT = "ORDER BY b.start_date DESC, b.id DESC LIMIT :limit OFFSET :offset";
+
+    // ALL и PAST включают архив (см. BookingArchiver); все архивные бронирования завершены.
+    // Условие пользователя, курсор и лимит стоят в каждой ветке UNION ALL: ветка идёт по своему индексу
+    // и отдаёт не больше offset + limit строк, а страница берётся из их объединения без производной таблицы
+    private static final String BRANCH_ORDER_AND_LIMIT = "ORDER BY b.start_date DESC, b.id DESC LIMIT :branchLimit";
+
+    private static final String UNION_ORDER_AND_LIMIT = "ORDER BY start_date DESC, id DESC LIMIT :limit OFFSET :offset";
+
+    private static final String BOOKER_FILTER = "WHERE b.booker_id = :userId ";
+    private static final String OWNER_FILTER = "WHERE i.owner_id = :userId ";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Boolean> existsUserById(Long userId) {
+        return databaseClient.sql("SELECT id FROM users WHERE id = :userId")
+                .bind("userId", userId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Boolean> existsItemByOwnerId(Long ownerId) {
+        return databaseClient.sql("SELECT id FROM items WHERE owner_id = :ownerId LIMIT 1")
+                .bind("ownerId", ownerId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Flux<BookingResponseDto> findByBookerId(Long bookerId, BookingState state,
+                                                   BookingCursor cursor, long offset, int limit) {
+        return find(false, bookerId, state, cursor, offset, limit);
+    }
+
+    public Flux<BookingResponseDto> findByOwnerId(Long ownerId, BookingState state,
+                                                  BookingCursor cursor, long offset, int limit) {
+        return find(true, ownerId, state, cursor, offset, limit);
+    }
+
+    private Flux<BookingResponseDto> find(boolean byOwner, Long userId, BookingState state,
+                                          BookingCursor cursor, long offset, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql(byOwner, state))
+                .bind("userId", userId)
+                .bind("cursorStart", cursor.getStart())
+                .bind("cursorId", cursor.getId())
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (includesArchive(state)) {
+            spec = spec.bind("branchLimit", offset + limit);
+        }
+
+        switch (state) {
+            case CURRENT:
+                spec = spec.bind("phase", BookingPhase.CURRENT.name());
+                break;
+            case PAST:
+                spec = spec.bind("phase", BookingPhase.PAST.name());
+                break;
+            case FUTURE:
+                spec = spec.bind("phase", BookingPhase.FUTURE.name());
+                break;
+            case WAITING:
+                spec = spec.bind("status", BookingStatus.WAITING.name());
+                break;
+            case REJECTED:
+                spec = spec.bind("status", BookingStatus.REJECTED.name());
+                break;
+            default:
+                break;
+        }
+
+        return spec.map(ReactiveBookingRepository::toBookingResponseDto).all();
+    }
+
+    private static String sql(boolean byOwner, BookingState state) {
+        if (!includesArchive(state)) {
+            return String.format(SELECT_RESPONSE_DTO, "bookings") + (byOwner ? OWNER_FILTER : BOOKER_FILTER)
+                    + stateCondition(state) + AFTER_CURSOR + ORDER_AND_LIMIT;
+        }
+        String userCondition = byOwner ? OWNER_FILTER : BOOKER_FILTER;
+        // Архивные строки все в фазе PAST, условие по фазе нужно только ветке bookings
+        return branch("bookings", userCondition + stateCondition(state)) + " UNION ALL "
+                + branch("bookings_archive", userCondition) + " " + UNION_ORDER_AND_LIMIT;
+    }
+
+    private static String branch(String table, String condition) {
+        return "(" + String.format(SELECT_RESPONSE_DTO, table) + condition + AFTER_CURSOR
+                + BRANCH_ORDER_AND_LIMIT + ")";
+    }
+
+    private static boolean includesArchive(BookingState state) {
+        return state == BookingState.ALL || state == BookingState.PAST;
+    }
+
+    private static String stateCondition(BookingState state) {
+        switch (state) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                return "AND b.phase = :phase ";
+            case WAITING:
+            case REJECTED:
+                return "AND b.status = :status ";
+            default:
+                return "";
+        }
+    }
+
+    private static BookingResponseDto toBookingResponseDto(Readable row) {
+        return new BookingResponseDto(
+                row.get("id", Long.class),
+                row.get("start_date", LocalDateTime.class),
+                row.get("end_date", LocalDateTime.class),
+                BookingStatus.valueOf(row.get("status", String.class)),
+                new UserDto(row.get("booker_id", Long.class),
+                        row.get("booker_name", String.class),
+                        row.get("booker_email", String.class)),
+                new ItemDto(row.get("item_id", Long.class),
+                        row.get("item_name", String.class),
+                        row.get("item_description", String.class),
+                        row.get("item_available", Boolean.class),
+                        row.get("item_owner_id", Long.class),
+                        row.get("item_request_id", Long.class)));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingArchiveProperties;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит давно завершившиеся бронирования из bookings в bookings_archive, чтобы индексы
+ * «живых» выборок не росли вместе с историей. Каждая порция копируется и удаляется в своей транзакции.
+ * WAITING и REJECTED остаются в bookings: их списки читают только одну таблицу,
+ * а слияние с архивом нужно лишь для ALL и PAST.
+ */
+@Service
+@ConditionalOnProperty(prefix = "shareit.booking.archive", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class BookingArchiver {
+
+    static final List<BookingStatus> ARCHIVED_STATUSES = List.of(BookingStatus.APPROVED, BookingStatus.CANCELED);
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchiveProperties properties;
+    private final TransactionTemplate batchTransaction;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           BookingArchiveProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.archive.interval:PT1H}",
+            fixedDelayString = "${shareit.booking.archive.interval:PT1H}")
+    public void archive() {
+        archiveEndedBefore(LocalDateTime.now().minus(properties.getRetention()));
+    }
+
+    public int archiveEndedBefore(LocalDateTime cutoff) {
+        Pageable batch = PageRequest.of(0, properties.getBatchSize());
+        LocalDateTime archivedAt = LocalDateTime.now();
+        int archived = 0;
+
+        while (true) {
+            int moved = batchTransaction.execute(status -> {
+                List<Long> ids = bookingRepository.findIdsToArchive(cutoff, ARCHIVED_STATUSES, batch);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                archivedBookingRepository.copyFromBookings(ids, archivedAt);
+                bookingRepository.deleteByIds(ids);
+                return ids.size();
+            });
+
+            archived += moved;
+            if (moved < batch.getPageSize()) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} bookings ended before {}", archived, cutoff);
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.booking.BookingEventsProperties;
+import ru.practicum.shareit.booking.dto.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Шина событий бронирований внутри процесса. События приходят после коммита
+ * и раздаются всем подписчикам; каждому — через собственный ограниченный буфер,
+ * чтобы медленный клиент терял свои события, а не задерживал остальных и запрос-источник.
+ */
+@Component
+@Slf4j
+public class BookingEventBroadcaster {
+
+    private final BookingEventsProperties properties;
+    private final Sinks.Many<BookingChangedEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter droppedEvents;
+
+    public BookingEventBroadcaster(BookingEventsProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.droppedEvents = Counter.builder("shareit.booking.events.dropped")
+                .description("Booking events dropped because a subscriber buffer overflowed")
+                .register(registry);
+        registry.gauge("shareit.booking.events.subscribers", subscribers);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        // Sinks не допускают одновременной эмиссии из нескольких потоков
+        Sinks.EmitResult result;
+        synchronized (sink) {
+            result = sink.tryEmitNext(event);
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Booking event for booking ID: {} was not delivered: {}", event.getBooking().getId(), result);
+        }
+    }
+
+    public Flux<BookingResponseDto> subscribe(Long userId) {
+        return sink.asFlux()
+                .filter(event -> event.concerns(userId))
+                .onBackpressureBuffer(properties.getBufferSize(), event -> {
+                    droppedEvents.increment();
+                    log.debug("Booking event for booking ID: {} dropped for user ID: {}",
+                            event.getBooking().getId(), userId);
+                }, properties.getOverflowStrategy())
+                .map(BookingChangedEvent::getBooking)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+}
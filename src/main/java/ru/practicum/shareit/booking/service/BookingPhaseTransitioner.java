@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPhaseProperties;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Сдвигает bookings.phase вслед за временем: FUTURE → CURRENT → PAST.
+ * Благодаря этому списки CURRENT/PAST/FUTURE ищут по равенству фазы в индексах
+ * (booker_id | item_id, phase, start_date) вместо диапазонов по двум колонкам.
+ * Каждая порция переводится в своей короткой транзакции, чтобы не держать блокировки на всю таблицу.
+ */
+@Service
+@Slf4j
+public class BookingPhaseTransitioner {
+
+    private final BookingRepository bookingRepository;
+    private final BookingPhaseProperties properties;
+    private final TransactionTemplate batchTransaction;
+
+    public BookingPhaseTransitioner(BookingRepository bookingRepository,
+                                    BookingPhaseProperties properties,
+                                    PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${shareit.booking.phase.interval:PT10S}")
+    public void advance() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Сначала завершившиеся: короткое будущее бронирование может сразу стать прошедшим
+        int moved = transition(BookingPhase.FUTURE, BookingPhase.PAST,
+                page -> bookingRepository.findIdsByPhaseAndEndBefore(BookingPhase.FUTURE, now, page));
+        moved += transition(BookingPhase.CURRENT, BookingPhase.PAST,
+                page -> bookingRepository.findIdsByPhaseAndEndBefore(BookingPhase.CURRENT, now, page));
+        moved += transition(BookingPhase.FUTURE, BookingPhase.CURRENT,
+                page -> bookingRepository.findIdsByPhaseAndStartNotAfter(BookingPhase.FUTURE, now, page));
+
+        if (moved > 0) {
+            log.info("Moved {} bookings to a new phase", moved);
+        }
+    }
+
+    private int transition(BookingPhase source, BookingPhase target, Function<Pageable, List<Long>> candidates) {
+        Pageable batch = PageRequest.of(0, properties.getBatchSize());
+        int moved = 0;
+
+        while (true) {
+            List<Long> ids = batchTransaction.execute(status -> candidates.apply(batch));
+            if (ids.isEmpty()) {
+                return moved;
+            }
+
+            moved += batchTransaction.execute(status -> bookingRepository.updatePhase(ids, source, target));
+            if (ids.size() < batch.getPageSize()) {
+                return moved;
+            }
+        }
+    }
+}
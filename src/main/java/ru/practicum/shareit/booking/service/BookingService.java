@@ -1,8 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.util.BatchRowResult;
 
 import java.util.List;
 
@@ -11,9 +15,26 @@ public interface BookingService {
 
     BookingResponseDto approveBooking(Long bookingId, Long userId, boolean approved);
 
+    List<BatchRowResult<BookingResponseDto>> approveBookings(List<Long> bookingIds, Long userId, boolean approved);
+
+    // Создания и смены статусов бронирований пользователя — и как арендатора, и как владельца вещи
+    Flux<BookingResponseDto> getBookingEvents(Long userId);
+
     BookingResponseDto getBookingById(Long bookingId, Long userId);
 
+    // ETag бронирования по версиям строк, с той же проверкой доступа, что и getBookingById
+    String getBookingETag(Long bookingId, Long userId);
+
     List<BookingResponseDto> getUserBookings(Long userId, BookingState state, int from, int size);
 
+    List<BookingResponseDto> getUserBookings(Long userId, BookingState state, BookingCursor cursor, int size);
+
     List<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, int from, int size);
+
+    // Счётчики по всем состояниям одним запросом — для вкладок списков
+    BookingSummaryDto getUserBookingSummary(Long userId);
+
+    BookingSummaryDto getOwnerBookingSummary(Long userId);
+
+    List<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, BookingCursor cursor, int size);
 }
\ No newline at end of file
@@ -1,40 +1,69 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.BookingVersionDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemBookingTimelineService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.BatchRowResult;
+import ru.practicum.shareit.util.ETags;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Comparator<BookingResponseDto> NEWEST_FIRST = Comparator
+            .comparing(BookingResponseDto::getStart)
+            .thenComparing(BookingResponseDto::getId)
+            .reversed();
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ItemBookingTimelineService itemBookingTimelineService;
+    private final UserCache userCache;
+    private final BookingEventBroadcaster bookingEventBroadcaster;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -57,17 +86,24 @@ public class BookingServiceImpl implements BookingService {
 
         validateBookingDates(bookingDto.getStart(), bookingDto.getEnd());
 
-        checkForOverlappingBookings(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+        // Ожидающее бронирование ничего не блокирует: здесь лишь ранний отказ,
+        // окончательно пересечение проверяется при подтверждении под блокировкой вещи
+        if (hasApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ValidationException("Item is already booked for this time period");
+        }
 
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setItem(item);
         booking.setBooker(booker);
         booking.setStatus(BookingStatus.WAITING);
+        booking.setPhase(BookingPhase.at(booking.getStart(), booking.getEnd(), LocalDateTime.now()));
 
         Booking savedBooking = bookingRepository.save(booking);
         log.info("Booking created with ID: {}", savedBooking.getId());
 
-        return BookingMapper.toBookingResponseDto(savedBooking);
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(savedBooking);
+        eventPublisher.publishEvent(new BookingChangedEvent(response));
+        return response;
     }
 
     @Override
@@ -75,7 +111,7 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDto approveBooking(Long bookingId, Long userId, boolean approved) {
         log.info("Approving booking ID: {} by user ID: {}, approved: {}", bookingId, userId, approved);
 
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
 
         if (!booking.getItem().getOwner().getId().equals(userId)) {
@@ -86,19 +122,115 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Booking can only be approved from WAITING status");
         }
 
+        if (approved) {
+            lockItemsForApproval(List.of(booking.getItem().getId()));
+            if (hasApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                throw new ValidationException("Item is already booked for this time period");
+            }
+        }
+
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
 
         Booking updatedBooking = bookingRepository.save(booking);
+        if (updatedBooking.getStatus() == BookingStatus.APPROVED) {
+            itemBookingTimelineService.invalidate(updatedBooking.getItem().getId());
+        }
         log.info("Booking ID: {} status updated to: {}", bookingId, updatedBooking.getStatus());
 
-        return BookingMapper.toBookingResponseDto(updatedBooking);
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(updatedBooking);
+        eventPublisher.publishEvent(new BookingChangedEvent(response));
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchRowResult<BookingResponseDto>> approveBookings(List<Long> bookingIds, Long userId,
+                                                                     boolean approved) {
+        log.info("Approving batch of {} bookings by user ID: {}, approved: {}", bookingIds.size(), userId, approved);
+
+        if (bookingIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+
+        // Бронирования вместе с вещами читаются одним запросом, владелец проверяется по owner_id
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(bookingIds.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BatchRowResult<BookingResponseDto>> results = new ArrayList<>(bookingIds.size());
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        Set<Long> acceptedIds = new HashSet<>();
+
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Long bookingId = bookingIds.get(i);
+            Booking booking = bookingId != null ? bookings.get(bookingId) : null;
+
+            if (booking == null) {
+                results.add(BatchRowResult.rejected(i, "Booking not found with id: " + bookingId));
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                results.add(BatchRowResult.rejected(i, "Only item owner can approve booking"));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.add(BatchRowResult.rejected(i, "Booking can only be approved from WAITING status"));
+            } else if (!acceptedIds.add(bookingId)) {
+                results.add(BatchRowResult.rejected(i, "Duplicate booking id in batch"));
+            } else {
+                accepted.put(i, booking);
+                results.add(null);
+            }
+        }
+
+        if (approved && !accepted.isEmpty()) {
+            rejectOverlappingApprovals(accepted, acceptedIds, results);
+        }
+
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated = bookingRepository.updateWaitingStatus(acceptedIds, status);
+        if (updated != acceptedIds.size()) {
+            // Часть бронирований успели обработать параллельно — откатываем весь пакет
+            throw new ConflictException("Bookings were modified concurrently, retry the request");
+        }
+
+        Set<Long> approvedItemIds = new HashSet<>();
+        accepted.forEach((index, booking) -> {
+            booking.setStatus(status);
+            if (status == BookingStatus.APPROVED) {
+                approvedItemIds.add(booking.getItem().getId());
+            }
+            BookingResponseDto response = BookingMapper.toBookingResponseDto(booking);
+            eventPublisher.publishEvent(new BookingChangedEvent(response));
+            results.set(index, BatchRowResult.updated(index, response));
+        });
+        approvedItemIds.forEach(itemBookingTimelineService::invalidate);
+
+        log.info("Batch approval by user ID: {} updated {} bookings to: {}", userId, updated, status);
+        return results;
+    }
+
+    @Override
+    public Flux<BookingResponseDto> getBookingEvents(Long userId) {
+        log.info("Subscribing user ID: {} to booking events", userId);
+
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+
+        return bookingEventBroadcaster.subscribe(userId);
     }
 
     @Override
     public BookingResponseDto getBookingById(Long bookingId, Long userId) {
         log.info("Getting booking ID: {} for user ID: {}", bookingId, userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
+        // Давно завершённые бронирования перенесены в архив с прежними id
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
+                .or(() -> archivedBookingRepository.findWithItemAndBookerById(bookingId)
+                        .map(BookingMapper::toBooking))
                 .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
 
         if (!booking.getBooker().getId().equals(userId) &&
@@ -109,51 +241,122 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingResponseDto(booking);
     }
 
+    @Override
+    public String getBookingETag(Long bookingId, Long userId) {
+        BookingVersionDto version = bookingRepository.findVersionById(bookingId)
+                .or(() -> archivedBookingRepository.findVersionById(bookingId))
+                .orElseThrow(() -> new NotFoundException("Booking not found with id: " + bookingId));
+
+        if (!version.getBookerId().equals(userId) && !version.getItemOwnerId().equals(userId)) {
+            throw new NotFoundException("Only booker or item owner can view booking");
+        }
+
+        return ETags.of("booking", bookingId, version.getVersion(), version.getBookerVersion(),
+                version.getItemVersion());
+    }
+
     @Override
     public List<BookingResponseDto> getUserBookings(Long userId, BookingState state, int from, int size) {
         log.info("Getting bookings for user ID: {}, state: {}", userId, state);
 
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        return findUserBookings(userId, state, BookingCursor.first(), PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public List<BookingResponseDto> getUserBookings(Long userId, BookingState state, BookingCursor cursor, int size) {
+        log.info("Getting bookings for user ID: {}, state: {}, after cursor: {}/{}",
+                userId, state, cursor.getStart(), cursor.getId());
+
+        return findUserBookings(userId, state, cursor, PageRequest.of(0, size));
+    }
+
+    private List<BookingResponseDto> findUserBookings(Long userId, BookingState state,
+                                                      BookingCursor cursor, Pageable pageable) {
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
 
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursorStart = cursor.getStart();
+        Long cursorId = cursor.getId();
 
-        List<Booking> bookings;
+        List<BookingResponseDto> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, pageable);
+                bookings = mergeWithArchive(pageable,
+                        page -> bookingRepository.findByBookerId(userId, cursorStart, cursorId, page),
+                        page -> archivedBookingRepository.findByBookerId(userId, cursorStart, cursorId, page));
                 break;
             case CURRENT:
-                bookings = bookingRepository.findCurrentByBookerId(userId, now, pageable);
+                bookings = bookingRepository.findByBookerIdAndPhase(userId, BookingPhase.CURRENT,
+                        cursorStart, cursorId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now, pageable);
+                bookings = mergeWithArchive(pageable,
+                        page -> bookingRepository.findByBookerIdAndPhase(userId, BookingPhase.PAST,
+                                cursorStart, cursorId, page),
+                        page -> archivedBookingRepository.findByBookerId(userId, cursorStart, cursorId, page));
                 break;
             case FUTURE:
-                bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now, pageable);
+                bookings = bookingRepository.findByBookerIdAndPhase(userId, BookingPhase.FUTURE,
+                        cursorStart, cursorId, pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, pageable);
+                bookings = bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.WAITING,
+                        cursorStart, cursorId, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, pageable);
+                bookings = bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, pageable);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .collect(Collectors.toList());
+        return bookings;
     }
 
-    private void checkForOverlappingBookings(Long itemId, LocalDateTime start, LocalDateTime end) {
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(itemId, start, end);
+    // Один запрос по индексу (item_id, status, start_date, end_date)
+    private boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId,
+                BookingStatus.APPROVED, end, start);
+    }
 
-        if (!overlappingBookings.isEmpty()) {
-            throw new ValidationException("Item is already booked for this time period");
+    /**
+     * Подтверждения бронирований одной вещи идут строго по очереди: блокировка строки вещи в БД
+     * держится до конца транзакции, поэтому проверка пересечений видит все ранее закоммиченные
+     * подтверждения, в том числе с других экземпляров.
+     */
+    private void lockItemsForApproval(Collection<Long> itemIds) {
+        itemRepository.lockAllByIdIn(itemIds);
+    }
+
+    // Строки пакета, пересекающиеся с подтверждёнными бронированиями или друг с другом, отклоняются
+    private void rejectOverlappingApprovals(Map<Integer, Booking> accepted, Set<Long> acceptedIds,
+                                            List<BatchRowResult<BookingResponseDto>> results) {
+        lockItemsForApproval(accepted.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+
+        List<Booking> approvedInBatch = new ArrayList<>();
+        Iterator<Map.Entry<Integer, Booking>> iterator = accepted.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Booking> row = iterator.next();
+            Booking booking = row.getValue();
+
+            boolean overlapsBatch = approvedInBatch.stream()
+                    .anyMatch(other -> other.getItem().getId().equals(booking.getItem().getId())
+                            && other.getStart().isBefore(booking.getEnd())
+                            && other.getEnd().isAfter(booking.getStart()));
+
+            if (overlapsBatch || hasApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                results.set(row.getKey(), BatchRowResult.rejected(row.getKey(),
+                        "Item is already booked for this time period"));
+                acceptedIds.remove(booking.getId());
+                iterator.remove();
+            } else {
+                approvedInBatch.add(booking);
+            }
         }
     }
 
@@ -161,41 +364,110 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, int from, int size) {
         log.info("Getting bookings for owner ID: {}, state: {}", userId, state);
 
-        List<Item> userItems = itemRepository.findAllByOwnerId(userId);
-        if (userItems.isEmpty()) {
+        return findOwnerBookings(userId, state, BookingCursor.first(), PageRequest.of(from / size, size));
+    }
+
+    @Override
+    public List<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, BookingCursor cursor, int size) {
+        log.info("Getting bookings for owner ID: {}, state: {}, after cursor: {}/{}",
+                userId, state, cursor.getStart(), cursor.getId());
+
+        return findOwnerBookings(userId, state, cursor, PageRequest.of(0, size));
+    }
+
+    @Override
+    public BookingSummaryDto getUserBookingSummary(Long userId) {
+        log.info("Getting booking summary for user ID: {}", userId);
+
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+        return bookingRepository.summarizeByBookerId(userId)
+                .plusArchived(archivedBookingRepository.countByBookerId(userId));
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerBookingSummary(Long userId) {
+        log.info("Getting booking summary for owner ID: {}", userId);
+
+        checkOwnerHasItems(userId);
+        return bookingRepository.summarizeByOwnerId(userId)
+                .plusArchived(archivedBookingRepository.countByItemOwnerId(userId));
+    }
+
+    // Достаточно проверить наличие хотя бы одной вещи, загружать их не нужно
+    private void checkOwnerHasItems(Long userId) {
+        if (!itemRepository.existsByOwnerId(userId)) {
             throw new NotFoundException("User has no items"); // ← 404 статус
         }
+    }
+
+    private List<BookingResponseDto> findOwnerBookings(Long userId, BookingState state,
+                                                       BookingCursor cursor, Pageable pageable) {
+        checkOwnerHasItems(userId);
 
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursorStart = cursor.getStart();
+        Long cursorId = cursor.getId();
 
-        List<Booking> bookings;
+        List<BookingResponseDto> bookings;
 
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, pageable);
+                bookings = mergeWithArchive(pageable,
+                        page -> bookingRepository.findByOwnerId(userId, cursorStart, cursorId, page),
+                        page -> archivedBookingRepository.findByOwnerId(userId, cursorStart, cursorId, page));
                 break;
             case CURRENT:
-                bookings = bookingRepository.findCurrentByOwnerId(userId, now, pageable);
+                bookings = bookingRepository.findByOwnerIdAndPhase(userId, BookingPhase.CURRENT,
+                        cursorStart, cursorId, pageable);
                 break;
             case PAST:
-                bookings = bookingRepository.findPastByOwnerId(userId, now, pageable);
+                bookings = mergeWithArchive(pageable,
+                        page -> bookingRepository.findByOwnerIdAndPhase(userId, BookingPhase.PAST,
+                                cursorStart, cursorId, page),
+                        page -> archivedBookingRepository.findByOwnerId(userId, cursorStart, cursorId, page));
                 break;
             case FUTURE:
-                bookings = bookingRepository.findFutureByOwnerId(userId, now, pageable);
+                bookings = bookingRepository.findByOwnerIdAndPhase(userId, BookingPhase.FUTURE,
+                        cursorStart, cursorId, pageable);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByOwnerIdAndStatus(userId, BookingStatus.WAITING, pageable);
+                bookings = bookingRepository.findByOwnerIdAndStatus(userId, BookingStatus.WAITING,
+                        cursorStart, cursorId, pageable);
                 break;
             case REJECTED:
-                bookings = bookingRepository.findByOwnerIdAndStatus(userId, BookingStatus.REJECTED, pageable);
+                bookings = bookingRepository.findByOwnerIdAndStatus(userId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, pageable);
                 break;
             default:
                 throw new ValidationException("Unknown state: " + state);
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
+        return bookings;
+    }
+
+    /**
+     * Сливает страницу из bookings и bookings_archive. Обе выборки упорядочены одинаково,
+     * поэтому первых offset + size строк каждой достаточно для нужной страницы; с курсором offset равен нулю.
+     * bookings читается первой: строка, перенесённая в архив между запросами, придёт дважды
+     * и отбросится по id, а не потеряется.
+     */
+    private List<BookingResponseDto> mergeWithArchive(Pageable pageable,
+                                                      Function<Pageable, List<BookingResponseDto>> hot,
+                                                      Function<Pageable, List<BookingResponseDto>> archived) {
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize());
+        List<BookingResponseDto> hotBookings = hot.apply(head);
+        List<BookingResponseDto> archivedBookings = archived.apply(head);
+        if (archivedBookings.isEmpty()) {
+            return hotBookings.stream().skip(pageable.getOffset()).collect(Collectors.toList());
+        }
+
+        Set<Long> seen = new HashSet<>();
+        return Stream.concat(hotBookings.stream(), archivedBookings.stream())
+                .filter(booking -> seen.add(booking.getId()))
+                .sorted(NEWEST_FIRST)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.service;
+
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+
+public interface ReactiveBookingService {
+    Flux<BookingResponseDto> getUserBookings(Long userId, BookingState state, int from, int size);
+
+    Flux<BookingResponseDto> getUserBookings(Long userId, BookingState state, BookingCursor cursor, int size);
+
+    Flux<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, int from, int size);
+
+    Flux<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, BookingCursor cursor, int size);
+}
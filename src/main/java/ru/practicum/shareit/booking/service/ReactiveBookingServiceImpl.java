@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ReactiveBookingRepository;
+import ru.practicum.shareit.config.ReactiveDatabaseProperties;
+import ru.practicum.shareit.exception.NotFoundException;
+
+/**
+ * Неблокирующее чтение списков бронирований. Ответы совпадают с {@link BookingServiceImpl},
+ * включая ошибки для неизвестного пользователя и владельца без вещей.
+ */
+@Service
+@ConditionalOnProperty(prefix = ReactiveDatabaseProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBookingServiceImpl implements ReactiveBookingService {
+
+    private final ReactiveBookingRepository reactiveBookingRepository;
+
+    @Override
+    public Flux<BookingResponseDto> getUserBookings(Long userId, BookingState state, int from, int size) {
+        log.info("Reactive getting bookings for user ID: {}, state: {}", userId, state);
+
+        return findUserBookings(userId, state, BookingCursor.first(), (long) (from / size) * size, size);
+    }
+
+    @Override
+    public Flux<BookingResponseDto> getUserBookings(Long userId, BookingState state, BookingCursor cursor, int size) {
+        log.info("Reactive getting bookings for user ID: {}, state: {}, after cursor: {}/{}",
+                userId, state, cursor.getStart(), cursor.getId());
+
+        return findUserBookings(userId, state, cursor, 0, size);
+    }
+
+    @Override
+    public Flux<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, int from, int size) {
+        log.info("Reactive getting bookings for owner ID: {}, state: {}", userId, state);
+
+        return findOwnerBookings(userId, state, BookingCursor.first(), (long) (from / size) * size, size);
+    }
+
+    @Override
+    public Flux<BookingResponseDto> getOwnerBookings(Long userId, BookingState state, BookingCursor cursor, int size) {
+        log.info("Reactive getting bookings for owner ID: {}, state: {}, after cursor: {}/{}",
+                userId, state, cursor.getStart(), cursor.getId());
+
+        return findOwnerBookings(userId, state, cursor, 0, size);
+    }
+
+    private Flux<BookingResponseDto> findUserBookings(Long userId, BookingState state, BookingCursor cursor,
+                                                      long offset, int size) {
+        return reactiveBookingRepository.existsUserById(userId)
+                .flatMapMany(exists -> exists
+                        ? reactiveBookingRepository.findByBookerId(userId, state, cursor, offset, size)
+                        : Flux.error(new NotFoundException("User not found with id: " + userId)));
+    }
+
+    private Flux<BookingResponseDto> findOwnerBookings(Long userId, BookingState state, BookingCursor cursor,
+                                                       long offset, int size) {
+        return reactiveBookingRepository.existsItemByOwnerId(userId)
+                .flatMapMany(hasItems -> hasItems
+                        ? reactiveBookingRepository.findByOwnerId(userId, state, cursor, offset, size)
+                        : Flux.error(new NotFoundException("User has no items")));
+    }
+}
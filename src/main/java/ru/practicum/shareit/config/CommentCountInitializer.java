@@ -0,0 +1,34 @@
+package ru.practicum.shareit.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Досчитывает items.comment_count при старте. Колонку добавляет ddl-auto со значением 0,
+ * поэтому у вещей, прокомментированных до её появления, счётчик нужно заполнить.
+ * Трогаются только строки с нулевым счётчиком и хотя бы одним комментарием, повторный запуск их не находит.
+ */
+@Component
+@Slf4j
+public class CommentCountInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Фабрика нужна только для порядка: схему к этому моменту уже обновил Hibernate
+    public CommentCountInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfillCommentCounts() {
+        int updated = jdbcTemplate.update("UPDATE items SET comment_count = " +
+                "(SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id) " +
+                "WHERE comment_count = 0 AND EXISTS (SELECT 1 FROM comments c WHERE c.item_id = items.id)");
+        if (updated > 0) {
+            log.info("Comment counts backfilled for {} items", updated);
+        }
+    }
+}
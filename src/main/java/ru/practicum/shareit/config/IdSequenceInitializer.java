@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сдвигает последовательности id за уже выданные id при старте.
+ * В базе, где id выдавались identity-колонкой, ddl-auto создаёт последовательности с 1,
+ * и Hibernate выдал бы id, которые уже заняты. Шаг совпадает с allocationSize сущностей:
+ * значение последовательности — верхняя граница диапазона, который Hibernate резервирует.
+ */
+@Component
+@Slf4j
+public class IdSequenceInitializer {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Последовательность и таблицы, чьи id она выдаёт (архив хранит прежние id бронирований)
+    private static final Map<String, List<String>> SEQUENCES = Map.of(
+            "users_seq", List.of("users"),
+            "items_seq", List.of("items"),
+            "bookings_seq", List.of("bookings", "bookings_archive")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Фабрика нужна только для порядка: схему к этому моменту уже обновил Hibernate
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String sequence, List<String> tables) {
+        long maxId = tables.stream()
+                .mapToLong(table -> jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class))
+                .max()
+                .orElse(0);
+        if (maxId == 0) {
+            return;
+        }
+
+        // Выбранный диапазон пропадает, это дешевле, чем читать значение по-разному для каждой СУБД
+        long next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+        if (next - ALLOCATION_SIZE + 1 > maxId) {
+            return;
+        }
+
+        long restartWith = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+        log.info("Sequence {} moved from {} to {} past max id {}", sequence, next, restartWith, maxId);
+    }
+}
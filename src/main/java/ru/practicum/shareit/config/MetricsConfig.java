@@ -0,0 +1,22 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Включает обработку {@link io.micrometer.core.annotation.Timed} на сервисах.
+ * Запросы репозиториев, Hibernate и пул Hikari инструментируются автоконфигурацией Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Общий таймер методов сервисов, метод и класс попадают в теги
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.GlobalExceptionHandler;
+import ru.practicum.shareit.util.TokenBucket;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допуск запросов по пользователю: у каждого X-Sharer-User-Id своя корзина на чтение и своя на запись.
+ * Запрос сверх бюджета получает 429 с Retry-After и не доходит ни до контроллера, ни до пула соединений.
+ * Запросы без заголовка или с заголовком, который не является положительным id, учитываются по адресу клиента,
+ * а запись всегда списывается ещё и с корзины адреса — сменой заголовка её бюджет не обойти.
+ * Отказы считаются в метрике shareit.ratelimit.rejected с тегом bucket=read|write.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, UserBuckets> bucketsByClient;
+    private final Cache<String, TokenBucket> writeBucketsByAddress;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.bucketsByClient = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .recordStats()
+                .build();
+        this.writeBucketsByAddress = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .recordStats()
+                .build();
+        this.rejectedReads = rejectedCounter(meterRegistry, "read");
+        this.rejectedWrites = rejectedCounter(meterRegistry, "write");
+
+        CaffeineCacheMetrics.monitor(meterRegistry, bucketsByClient, "rateLimit.buckets");
+        CaffeineCacheMetrics.monitor(meterRegistry, writeBucketsByAddress, "rateLimit.addressWriteBuckets");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = READ_METHODS.contains(request.getMethod());
+        long now = System.nanoTime();
+        UserBuckets buckets = bucketsByClient.get(clientKey(request), key -> new UserBuckets(properties, now));
+
+        long waitNanos = (read ? buckets.read : buckets.write).tryAcquire(now);
+        if (waitNanos == 0 && !read) {
+            waitNanos = addressWriteBucket(request, now).tryAcquire(now);
+        }
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        (read ? rejectedReads : rejectedWrites).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Rate limit exceeded for client: {}, {} {}", clientKey(request), request.getMethod(),
+                request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new GlobalExceptionHandler.ErrorResponse("Too many requests, retry after " + retryAfterSeconds + " s"));
+    }
+
+    private TokenBucket addressWriteBucket(HttpServletRequest request, long now) {
+        RateLimitProperties.Budget budget = properties.getAddressWrite();
+        return writeBucketsByAddress.get(addressKey(request),
+                key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+    }
+
+    // Ключ — разобранный id, а не строка заголовка: произвольные значения не заводят новых корзин
+    private static String clientKey(HttpServletRequest request) {
+        Long userId = parseUserId(request.getHeader(USER_HEADER));
+        return userId != null ? "user:" + userId : addressKey(request);
+    }
+
+    private static String addressKey(HttpServletRequest request) {
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            long userId = Long.parseLong(header);
+            return userId > 0 ? userId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String bucket) {
+        return Counter.builder("shareit.ratelimit.rejected")
+                .description("Requests rejected with 429 because the client's token bucket was empty")
+                .tag("bucket", bucket)
+                .register(meterRegistry);
+    }
+
+    private static class UserBuckets {
+        private final TokenBucket read;
+        private final TokenBucket write;
+
+        UserBuckets(RateLimitProperties properties, long now) {
+            this.read = new TokenBucket(properties.getRead().getCapacity(),
+                    properties.getRead().getRefillPerSecond(), now);
+            this.write = new TokenBucket(properties.getWrite().getCapacity(),
+                    properties.getWrite().getRefillPerSecond(), now);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Бюджеты запросов на пользователя (X-Sharer-User-Id) к /items, /bookings и /users.
+ * Чтение и запись считаются в отдельных корзинах: capacity — допустимый всплеск,
+ * refillPerSecond — устойчивая частота.
+ * Заголовок пользователя ничем не подтверждён, поэтому запись дополнительно ограничена по адресу клиента
+ * (addressWrite): с одного адреса за NAT или прокси пишут многие пользователи, и этот бюджет шире.
+ */
+@Data
+@ConfigurationProperties(prefix = RateLimitProperties.PREFIX)
+public class RateLimitProperties {
+    public static final String PREFIX = "shareit.rate-limit";
+
+    private boolean enabled = true;
+    private Budget read = new Budget(100, 50);
+    private Budget write = new Budget(20, 10);
+    private Budget addressWrite = new Budget(200, 100);
+    // Корзины хранятся не больше чем для maxUsers пользователей и удаляются после idleTimeout простоя
+    private long maxUsers = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Подключение R2DBC для реактивного API чтения бронирований.
+ * Живёт рядом с JDBC-пулом и смотрит в ту же базу.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.r2dbc")
+public class ReactiveDatabaseProperties {
+    public static final String PREFIX = "shareit.r2dbc";
+
+    private boolean enabled = true;
+    private String url;
+    private String username;
+    private String password;
+    private int maxPoolSize = 20;
+    private Duration maxIdleTime = Duration.ofMinutes(30);
+}
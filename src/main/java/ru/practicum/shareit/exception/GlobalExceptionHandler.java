@@ -1,6 +1,12 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,14 +14,15 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Поток событий запрашивают с Accept: text/event-stream — ошибка подписки всё равно отдаётся в JSON
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ErrorResponse handleNotFoundException(NotFoundException e) {
-        return new ErrorResponse(e.getMessage());
+    public ResponseEntity<ErrorResponse> handleNotFoundException(NotFoundException e) {
+        return jsonError(HttpStatus.NOT_FOUND, e.getMessage());
     }
 
     @ExceptionHandler
@@ -24,6 +31,13 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    // Строку по @Version уже изменил другой запрос: клиенту стоит перечитать её и повторить
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class, OptimisticLockException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(Exception e) {
+        return new ErrorResponse("Resource was modified concurrently, please reload and retry");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(ValidationException e) {
@@ -43,10 +57,20 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(errorMessage);
     }
 
-    @ExceptionHandler(MissingRequestHeaderException.class)
+    // Ограничения на параметры и заголовки (@Positive, @Max) проверяет @Validated контроллера
+    @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleMissingRequestHeader(MissingRequestHeaderException e) {
-        return new ErrorResponse("Missing required header: " + e.getHeaderName());
+    public ErrorResponse handleConstraintViolation(ConstraintViolationException e) {
+        String errorMessage = e.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return new ErrorResponse(errorMessage);
+    }
+
+    @ExceptionHandler(MissingRequestHeaderException.class)
+    public ResponseEntity<ErrorResponse> handleMissingRequestHeader(MissingRequestHeaderException e) {
+        return jsonError(HttpStatus.BAD_REQUEST, "Missing required header: " + e.getHeaderName());
     }
 
     // Добавляем обработку исключения для бронирований
@@ -56,12 +80,26 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    // Пул соединений исчерпан дольше connection-timeout: клиенту стоит повторить позже
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleCannotCreateTransaction(CannotCreateTransactionException e) {
+        return new ErrorResponse("Service is temporarily overloaded, please retry later");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleException(Exception e) {
         return new ErrorResponse("Internal server error: " + e.getMessage());
     }
 
+    // Явный Content-Type отключает согласование по Accept, и тело ошибки пишется в JSON при любом Accept
+    private static ResponseEntity<ErrorResponse> jsonError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(message));
+    }
+
     public static class ErrorResponse {
         private String error;
 
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemTimelineBooking;
+import ru.practicum.shareit.item.model.ItemBookingTimeline;
+import ru.practicum.shareit.item.repository.ItemBookingTimelineRepository;
+import ru.practicum.shareit.util.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ведёт материализованную ленту бронирований вещей (см. {@link ItemBookingTimeline}).
+ * Устаревшая запись пересчитывается в транзакции вызывающего, а сохраняется после её коммита
+ * отдельной задачей в своей транзакции: читатель не держит второе соединение пула,
+ * а сохранение не перетирает запись, которую успели сбросить после её чтения.
+ */
+@Service
+@Slf4j
+public class ItemBookingTimelineService {
+
+    private final ItemBookingTimelineRepository timelineRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate storeTransaction;
+    private final Executor storeExecutor;
+
+    public ItemBookingTimelineService(ItemBookingTimelineRepository timelineRepository,
+                                      BookingRepository bookingRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                      Executor storeExecutor) {
+        this.timelineRepository = timelineRepository;
+        this.bookingRepository = bookingRepository;
+        this.storeTransaction = new TransactionTemplate(transactionManager);
+        this.storeExecutor = storeExecutor;
+    }
+
+    public ItemBookingTimeline getTimeline(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        Optional<ItemBookingTimeline> stored = timelineRepository.findById(itemId);
+        if (stored.isPresent() && stored.get().isValidAt(now)) {
+            return stored.get();
+        }
+
+        log.debug("Refreshing booking timeline for item ID: {}", itemId);
+        // Поколение читается до пересчёта: сброс после этого момента отменит сохранение
+        Long readGeneration = stored.map(ItemBookingTimeline::getGeneration).orElse(null);
+        ItemBookingTimeline computed = compute(itemId, now);
+        TransactionCallbacks.afterCommit(() -> storeExecutor.execute(() -> store(computed, readGeneration)));
+        return computed;
+    }
+
+    /**
+     * Помечает запись вещи устаревшей в текущей транзакции; она будет пересчитана при следующем чтении.
+     * Запись не удаляется, а получает новое поколение, поэтому пересчёт по данным до этой транзакции
+     * не сохранится, даже если завершится позже неё.
+     */
+    public void invalidate(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        timelineRepository.insertIfAbsent(itemId, null, null, null, null, now);
+        timelineRepository.markStale(itemId, now);
+    }
+
+    /**
+     * Сбрасывает записи, где удаляемый пользователь — арендатор последнего или следующего бронирования.
+     * Его бронирования удаляются каскадом в БД, и без сброса запись без validUntil показывала бы их всегда.
+     * Записи вещей самого пользователя удаляются каскадом вместе с вещами.
+     */
+    public void invalidateByBooker(Long bookerId) {
+        LocalDateTime now = LocalDateTime.now();
+        timelineRepository.markStaleByLastBooker(bookerId, now);
+        timelineRepository.markStaleByNextBooker(bookerId, now);
+    }
+
+    private void store(ItemBookingTimeline timeline, Long readGeneration) {
+        Long itemId = timeline.getItemId();
+        try {
+            Integer stored = storeTransaction.execute(status -> {
+                if (readGeneration == null) {
+                    return timelineRepository.insertIfAbsent(itemId,
+                            timeline.getLastBookingId(), timeline.getLastBookerId(),
+                            timeline.getNextBookingId(), timeline.getNextBookerId(), timeline.getValidUntil());
+                }
+                return timelineRepository.updateIfGeneration(itemId, readGeneration,
+                        timeline.getLastBookingId(), timeline.getLastBookerId(),
+                        timeline.getNextBookingId(), timeline.getNextBookerId(), timeline.getValidUntil());
+            });
+            if (stored == null || stored == 0) {
+                log.debug("Booking timeline for item ID: {} changed concurrently, refresh dropped", itemId);
+            }
+        } catch (DataAccessException e) {
+            // Вещь могли удалить, пока шёл пересчёт
+            log.debug("Booking timeline for item ID: {} was not stored", itemId, e);
+        }
+    }
+
+    private ItemBookingTimeline compute(Long itemId, LocalDateTime now) {
+        Map<String, ItemTimelineBooking> byKind = bookingRepository.findTimelineBookings(itemId, now).stream()
+                .collect(Collectors.toMap(ItemTimelineBooking::getKind, Function.identity()));
+
+        // Если все завершённые бронирования вещи уже в архиве, последнее берётся оттуда
+        Optional<ItemTimelineBooking> lastBooking = Optional.ofNullable(byKind.get("LAST"))
+                .or(() -> Optional.ofNullable(byKind.get("ARCHIVED")));
+        Optional<ItemTimelineBooking> nextBooking = Optional.ofNullable(byKind.get("NEXT"));
+        Optional<ItemTimelineBooking> nearestEnding = Optional.ofNullable(byKind.get("ENDING"));
+
+        // Лента меняется, когда начинается следующее бронирование или заканчивается идущее
+        LocalDateTime validUntil = Stream.of(
+                        nextBooking.map(ItemTimelineBooking::getStartDate),
+                        nearestEnding.map(ItemTimelineBooking::getEndDate))
+                .flatMap(Optional::stream)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+
+        return new ItemBookingTimeline(
+                itemId,
+                lastBooking.map(ItemTimelineBooking::getId).orElse(null),
+                lastBooking.map(ItemTimelineBooking::getBookerId).orElse(null),
+                nextBooking.map(ItemTimelineBooking::getId).orElse(null),
+                nextBooking.map(ItemTimelineBooking::getBookerId).orElse(null),
+                validUntil,
+                0L
+        );
+    }
+}
@@ -1,17 +1,27 @@
 package ru.practicum.shareit.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.util.BatchRowResult;
+import ru.practicum.shareit.util.ETagged;
 
 import java.util.List;
 
@@ -22,7 +32,11 @@ import java.util.List;
 @Validated
 public class ItemController {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+    private static final int MAX_COMMENTS_PAGE = 100;
+
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -32,6 +46,13 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BatchRowResult<ItemDto>> createItems(@RequestBody List<ItemCreateDto> itemDtos,
+                                                     @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("POST /items/batch - create {} items for user ID: {}", itemDtos.size(), userId);
+        return itemService.createItems(itemDtos, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@PathVariable @Positive Long itemId,
                               @Valid @RequestBody ItemDto itemDto,
@@ -42,17 +63,40 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getItemById(@PathVariable @Positive Long itemId,
-                               @RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId) {
+                               @RequestHeader(value = "X-Sharer-User-Id", required = false) Long userId,
+                               WebRequest request,
+                               HttpServletResponse response) {
         log.info("GET /items/{} - get item by ID, requested by user ID: {}", itemId, userId);
 
-        ItemDto itemDto = itemService.getItemById(itemId);
+        // Совпавший If-None-Match — 304 по запросу версий, карточка не собирается
+        if (hasIfNoneMatch(request) && request.checkNotModified(itemService.getItemETag(itemId, userId))) {
+            return null;
+        }
 
-        if (userId == null || !userId.equals(itemDto.getOwnerId())) {
-            itemDto.setLastBooking(null);
-            itemDto.setNextBooking(null);
+        return withETag(itemService.getItemByIdWithETag(itemId, userId), response);
+    }
+
+    @GetMapping("/{itemId}/card")
+    public ItemDto getItemCard(@PathVariable @Positive Long itemId,
+                               @RequestParam(defaultValue = "10") @Positive @Max(MAX_COMMENTS_PAGE) int commentsSize,
+                               WebRequest request,
+                               HttpServletResponse response) {
+        log.info("GET /items/{}/card - get public item card, comments: {}", itemId, commentsSize);
+
+        // Карточка не зависит от зрителя, поэтому ETag тот же, что у не-владельца
+        if (hasIfNoneMatch(request) && request.checkNotModified(itemService.getItemETag(itemId, null))) {
+            return null;
         }
+        return withETag(itemService.getItemCardWithETag(itemId, commentsSize), response);
+    }
 
-        return itemDto;
+    @GetMapping("/{itemId}/comments")
+    public List<CommentResponseDto> getComments(@PathVariable @Positive Long itemId,
+                                                @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                @RequestParam(defaultValue = "10") @Positive
+                                                @Max(MAX_COMMENTS_PAGE) int size) {
+        log.info("GET /items/{}/comments - get comments, from: {}, size: {}", itemId, from, size);
+        return itemService.getComments(itemId, from, size);
     }
 
     @GetMapping
@@ -61,7 +105,37 @@ public class ItemController {
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(defaultValue = "10") @Positive int size) {
         log.info("GET /items - get all items for owner ID: {}, from: {}, size: {}", userId, from, size);
-        return itemService.getAllItemsByOwner(userId);
+        return itemService.getAllItemsByOwner(userId, from, size);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemsByOwner(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("GET /items/stream - stream all items for owner ID: {}", userId);
+
+        // Первая пачка читается до начала ответа, чтобы ошибки вернулись обычным статусом
+        List<ItemDto> firstBatch = itemService.getItemsByOwnerAfter(userId, 0L, STREAM_BATCH_SIZE);
+
+        StreamingResponseBody body = outputStream -> {
+            List<ItemDto> batch = firstBatch;
+            while (!batch.isEmpty()) {
+                for (ItemDto item : batch) {
+                    outputStream.write(objectMapper.writeValueAsBytes(item));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+
+                if (batch.size() < STREAM_BATCH_SIZE) {
+                    break;
+                }
+                Long lastItemId = batch.get(batch.size() - 1).getId();
+                batch = itemService.getItemsByOwnerAfter(userId, lastItemId, STREAM_BATCH_SIZE);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/search")
@@ -70,7 +144,7 @@ public class ItemController {
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(defaultValue = "10") @Positive int size) {
         log.info("GET /items/search - search items with text: '{}', from: {}, size: {}", text, from, size);
-        return itemService.searchItems(text);
+        return itemService.searchItems(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -81,4 +155,14 @@ public class ItemController {
         log.info("POST /items/{}/comment - add comment by user ID: {}", itemId, userId);
         return itemService.addComment(itemId, userId, commentDto);
     }
+
+    private static boolean hasIfNoneMatch(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    // setHeader заменяет ETag, который checkNotModified выставил по версиям при несовпадении
+    private static ItemDto withETag(ETagged<ItemDto> item, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.ETAG, item.getETag());
+        return item.getBody();
+    }
 }
\ No newline at end of file
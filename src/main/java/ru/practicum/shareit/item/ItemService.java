@@ -4,6 +4,8 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.util.BatchRowResult;
+import ru.practicum.shareit.util.ETagged;
 
 import java.util.List;
 
@@ -11,13 +13,32 @@ public interface ItemService {
 
     ItemDto createItem(ItemCreateDto itemDto, Long userId);
 
+    List<BatchRowResult<ItemDto>> createItems(List<ItemCreateDto> itemDtos, Long userId);
+
     ItemDto updateItem(Long itemId, ItemDto itemDto, Long userId);
 
-    ItemDto getItemById(Long itemId);
+    // Последнее и следующее бронирования собираются только для владельца вещи
+    ItemDto getItemById(Long itemId, Long viewerId);
+
+    // То же вместе с ETag, посчитанным по прочитанным для тела данным
+    ETagged<ItemDto> getItemByIdWithETag(Long itemId, Long viewerId);
+
+    // Публичная карточка: вещь и первые commentsSize комментариев, без бронирований
+    ItemDto getItemCard(Long itemId, int commentsSize);
+
+    ETagged<ItemDto> getItemCardWithETag(Long itemId, int commentsSize);
+
+    // Комментарии вещи страницами, от новых к старым; в ItemDto встраиваются только последние
+    List<CommentResponseDto> getComments(Long itemId, int from, int size);
+
+    // ETag карточки вещи для этого зрителя; считается по версиям, без сборки карточки — для If-None-Match
+    String getItemETag(Long itemId, Long viewerId);
+
+    List<ItemDto> getAllItemsByOwner(Long userId, int from, int size);
 
-    List<ItemDto> getAllItemsByOwner(Long userId);
+    List<ItemDto> getItemsByOwnerAfter(Long userId, Long afterItemId, int batchSize);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, int from, int size);
 
     CommentResponseDto addComment(Long itemId, Long userId, CommentDto commentDto);
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
@@ -14,10 +18,17 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingTimeline;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.BatchRowResult;
+import ru.practicum.shareit.util.ETagged;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.TransactionCallbacks;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -27,13 +38,22 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Сколько последних комментариев встраивается в ItemDto; остальные — через getComments
+    static final int EMBEDDED_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserCache userCache;
+    private final ItemBookingTimelineService itemBookingTimelineService;
 
     @Override
     @Transactional
@@ -42,16 +62,60 @@ public class ItemServiceImpl implements ItemService {
 
         validateItemForCreation(itemDto);
 
-        User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
 
-        Item item = ItemMapper.toItem(itemDto, owner);
+        Item item = ItemMapper.toItem(itemDto, userRepository.getReferenceById(userId));
         Item savedItem = itemRepository.save(item);
+        TransactionCallbacks.afterCommit(() -> itemSearchIndex.index(savedItem));
 
         log.info("Item created with ID: {}", savedItem.getId());
         return ItemMapper.toItemDto(savedItem);
     }
 
+    @Override
+    @Transactional
+    public List<BatchRowResult<ItemDto>> createItems(List<ItemCreateDto> itemDtos, Long userId) {
+        log.info("Creating batch of {} items for user ID: {}", itemDtos.size(), userId);
+
+        if (itemDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+
+        User owner = userRepository.getReferenceById(userId);
+        List<BatchRowResult<ItemDto>> results = new ArrayList<>(itemDtos.size());
+        Map<Integer, Item> accepted = new LinkedHashMap<>();
+
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemCreateDto itemDto = itemDtos.get(i);
+            try {
+                if (itemDto == null) {
+                    throw new ValidationException("Item cannot be null");
+                }
+                validateItemForCreation(itemDto);
+                accepted.put(i, ItemMapper.toItem(itemDto, owner));
+                results.add(null);
+            } catch (ValidationException e) {
+                results.add(BatchRowResult.rejected(i, e.getMessage()));
+            }
+        }
+
+        // Вставки уходят в БД JDBC-пакетами при flush
+        itemRepository.saveAll(accepted.values());
+        accepted.forEach((index, item) -> results.set(index,
+                BatchRowResult.created(index, ItemMapper.toItemDto(item))));
+        List<Item> createdItems = new ArrayList<>(accepted.values());
+        TransactionCallbacks.afterCommit(() -> createdItems.forEach(itemSearchIndex::index));
+
+        log.info("Batch for user ID: {} processed, {} items created", userId, accepted.size());
+        return results;
+    }
+
     @Override
     @Transactional
     public ItemDto updateItem(Long itemId, ItemDto itemDto, Long userId) {
@@ -92,92 +156,125 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
+        // Индекс меняется только после коммита: откаченное изменение не должно попасть в поиск
+        TransactionCallbacks.afterCommit(() -> itemSearchIndex.index(updatedItem));
         return getItemDtoWithBookingsAndComments(updatedItem);
     }
 
     @Override
-    public ItemDto getItemById(Long itemId) {
-        log.info("Getting item by ID: {}", itemId);
+    public ItemDto getItemById(Long itemId, Long viewerId) {
+        return getItemByIdWithETag(itemId, viewerId).getBody();
+    }
+
+    @Override
+    public ETagged<ItemDto> getItemByIdWithETag(Long itemId, Long viewerId) {
+        log.info("Getting item by ID: {}, viewer ID: {}", itemId, viewerId);
 
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
+        List<CommentResponseDto> comments = getLatestComments(itemId, EMBEDDED_COMMENTS);
+
+        // Большинство просмотров не от владельца: лента бронирований им не показывается и не читается
+        if (viewerId == null || !viewerId.equals(item.getOwner().getId())) {
+            return new ETagged<>(ItemMapper.toItemDto(item, null, comments), itemETag(item, comments, null));
+        }
 
-        return getItemDtoWithBookingsAndComments(item);
+        // Лента читается один раз и для тела, и для ETag
+        ItemBookingTimeline timeline = itemBookingTimelineService.getTimeline(itemId);
+        return new ETagged<>(ItemMapper.toItemDto(item, timeline, comments), itemETag(item, comments, timeline));
     }
 
     @Override
-    public List<ItemDto> getAllItemsByOwner(Long userId) {
-        log.info("Getting all items for owner ID: {}", userId);
+    public ItemDto getItemCard(Long itemId, int commentsSize) {
+        return getItemCardWithETag(itemId, commentsSize).getBody();
+    }
 
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+    @Override
+    public ETagged<ItemDto> getItemCardWithETag(Long itemId, int commentsSize) {
+        log.info("Getting item card by ID: {}, comments: {}", itemId, commentsSize);
 
-        List<Item> items = itemRepository.findAllByOwnerId(userId);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
 
-        if (items.isEmpty()) {
-            return Collections.emptyList();
+        // В ETag входят встроенные комментарии, поэтому их читается не меньше EMBEDDED_COMMENTS
+        List<CommentResponseDto> comments = getLatestComments(itemId, Math.max(commentsSize, EMBEDDED_COMMENTS));
+        ItemDto card = ItemMapper.toItemDto(item, null,
+                comments.subList(0, Math.min(commentsSize, comments.size())));
+        return new ETagged<>(card, itemETag(item, comments, null));
+    }
+
+    @Override
+    public List<CommentResponseDto> getComments(Long itemId, int from, int size) {
+        log.info("Getting comments for item ID: {}, from: {}, size: {}", itemId, from, size);
+
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found with id: " + itemId);
         }
 
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
+        return toCommentDtos(commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(itemId,
+                PageRequest.of(from / size, size)));
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public String getItemETag(Long itemId, Long viewerId) {
+        ItemVersionDto version = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
 
-        List<Comment> allComments = commentRepository.findAllByItemIdInOrderByCreatedDesc(itemIds);
+        List<Long> commentIds = commentRepository.findLatestIdsByItemId(itemId,
+                PageRequest.of(0, EMBEDDED_COMMENTS));
 
-        Map<Long, Booking> lastBookings = bookingRepository
-                .findLastBookingsForItems(itemIds, now)
-                .stream()
-                .collect(Collectors.toMap(
-                        booking -> booking.getItem().getId(),
-                        Function.identity()
-                ));
+        // Бронирования в карточке видит только владелец, и только для него в ETag входит лента
+        ItemBookingTimeline timeline = viewerId != null && viewerId.equals(version.getOwnerId())
+                ? itemBookingTimelineService.getTimeline(itemId)
+                : null;
+        return itemETag(itemId, version.getVersion(), version.getCommentCount(), commentIds, timeline);
+    }
 
-        Map<Long, Booking> nextBookings = bookingRepository
-                .findNextBookingsForItems(itemIds, now)
-                .stream()
-                .collect(Collectors.toMap(
-                        booking -> booking.getItem().getId(),
-                        Function.identity()
-                ));
+    @Override
+    public List<ItemDto> getAllItemsByOwner(Long userId, int from, int size) {
+        log.info("Getting items for owner ID: {}, from: {}, size: {}", userId, from, size);
 
-        Map<Long, List<CommentResponseDto>> commentsByItem = allComments.stream()
-                .collect(Collectors.groupingBy(
-                        comment -> comment.getItem().getId(),
-                        Collectors.mapping(CommentMapper::toCommentResponseDto, Collectors.toList())
-                ));
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
 
-        return items.stream()
-                .map(item -> {
-                    Booking lastBooking = lastBookings.get(item.getId());
-                    Booking nextBooking = nextBookings.get(item.getId());
+        List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(userId, PageRequest.of(from / size, size));
+        return toItemDtosWithBookingsAndComments(items);
+    }
 
-                    List<CommentResponseDto> comments = commentsByItem.getOrDefault(
-                            item.getId(),
-                            Collections.emptyList()
-                    );
+    @Override
+    public List<ItemDto> getItemsByOwnerAfter(Long userId, Long afterItemId, int batchSize) {
+        log.debug("Getting items for owner ID: {} after item ID: {}, batch size: {}", userId, afterItemId, batchSize);
 
-                    return ItemMapper.toItemDto(
-                            item,
-                            lastBooking,
-                            nextBooking,
-                            comments
-                    );
-                })
-                .collect(Collectors.toList());
+        if (!userCache.existsById(userId)) {
+            throw new NotFoundException("User not found with id: " + userId);
+        }
+
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, afterItemId,
+                PageRequest.of(0, batchSize));
+        return toItemDtosWithBookingsAndComments(items);
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
-        log.info("Searching items with text: {}", text);
+    public List<ItemDto> searchItems(String text, int from, int size) {
+        log.info("Searching items with text: {}, from: {}, size: {}", text, from, size);
 
         if (text == null || text.isBlank()) {
             return List.of();
         }
 
-        return itemRepository.searchAvailableItems(text).stream()
-                .map(ItemMapper::toItemDto)
+        List<Long> itemIds = itemSearchIndex.search(text, from, size);
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Индекс отдаёт порядок по релевантности, сами вещи берём из БД по первичному ключу
+        Map<Long, ItemDto> itemsById = itemRepository.findItemDtosByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        return itemIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -192,8 +289,11 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Item not found with id: " + itemId));
 
+        LocalDateTime now = LocalDateTime.now();
         boolean hasBooked = bookingRepository.findFirstByBookerIdAndItemIdAndStatusAndEndBefore(
-                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now()).isPresent();
+                userId, itemId, BookingStatus.APPROVED, now).isPresent()
+                || archivedBookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                userId, itemId, BookingStatus.APPROVED, now);
 
         if (!hasBooked) {
             throw new ValidationException("Only users who have booked this item can leave comments");
@@ -205,28 +305,99 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.toComment(commentDto, item, author);
         Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
 
         log.info("Comment added with ID: {}", savedComment.getId());
         return CommentMapper.toCommentResponseDto(savedComment);
     }
 
+    // Бронирования и комментарии догружаются пакетно и только для переданной страницы вещей
+    private List<ItemDto> toItemDtosWithBookingsAndComments(List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        List<Comment> allComments = commentRepository.findLatestByItemIdIn(itemIds, EMBEDDED_COMMENTS);
+
+        Map<Long, ItemLastNextBookings> bookingsByItem = bookingRepository
+                .findLastAndNextBookingsForItems(itemIds, LocalDateTime.now())
+                .stream()
+                .collect(Collectors.toMap(ItemLastNextBookings::getItemId, Function.identity()));
+
+        // Если все завершённые бронирования вещи уже в архиве, последнее берётся оттуда
+        List<Long> withoutLastBooking = itemIds.stream()
+                .filter(itemId -> bookingsByItem.get(itemId) == null
+                        || bookingsByItem.get(itemId).getLastBookingId() == null)
+                .collect(Collectors.toList());
+        Map<Long, ArchivedBooking> archivedLastBookings = withoutLastBooking.isEmpty()
+                ? Collections.emptyMap()
+                : archivedBookingRepository.findLastBookingsForItems(withoutLastBooking).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+
+        Map<Long, List<CommentResponseDto>> commentsByItem = allComments.stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentResponseDto, Collectors.toList())
+                ));
+
+        return items.stream()
+                .map(item -> {
+                    ItemDto itemDto = ItemMapper.toItemDto(
+                            item,
+                            bookingsByItem.get(item.getId()),
+                            commentsByItem.getOrDefault(item.getId(), Collections.emptyList())
+                    );
+
+                    ArchivedBooking archivedLastBooking = archivedLastBookings.get(item.getId());
+                    if (archivedLastBooking != null) {
+                        itemDto.setLastBooking(ItemDto.BookingInfo.builder()
+                                .id(archivedLastBooking.getId())
+                                .bookerId(archivedLastBooking.getBooker().getId())
+                                .build());
+                    }
+                    return itemDto;
+                })
+                .collect(Collectors.toList());
+    }
+
     private ItemDto getItemDtoWithBookingsAndComments(Item item) {
-        LocalDateTime now = LocalDateTime.now();
+        ItemBookingTimeline timeline = itemBookingTimelineService.getTimeline(item.getId());
+        return ItemMapper.toItemDto(item, timeline, getLatestComments(item.getId(), EMBEDDED_COMMENTS));
+    }
 
-        Optional<Booking> lastBooking = bookingRepository.findLastBookingForItem(item.getId(), now);
-        Optional<Booking> nextBooking = bookingRepository.findNextBookingForItem(item.getId(), now);
+    private static String itemETag(Item item, List<CommentResponseDto> latestComments,
+                                   ItemBookingTimeline timeline) {
+        List<Long> commentIds = latestComments.stream()
+                .limit(EMBEDDED_COMMENTS)
+                .map(CommentResponseDto::getId)
+                .collect(Collectors.toList());
+        return itemETag(item.getId(), item.getVersion(), item.getCommentCount(), commentIds, timeline);
+    }
 
-        List<Comment> comments = commentRepository.findAllByItemIdOrderByCreatedDesc(item.getId());
-        List<CommentResponseDto> commentDtos = comments.stream()
+    // Одна формула и для ETag из версий, и для ETag уже собранной карточки
+    private static String itemETag(Long itemId, Long version, Long commentCount, List<Long> commentIds,
+                                   ItemBookingTimeline timeline) {
+        if (timeline == null) {
+            return ETags.of("item", itemId, version, commentCount, commentIds);
+        }
+        return ETags.of("item", itemId, version, commentCount, commentIds,
+                "owner", timeline.getLastBookingId(), timeline.getLastBookerId(),
+                timeline.getNextBookingId(), timeline.getNextBookerId());
+    }
+
+    private List<CommentResponseDto> getLatestComments(Long itemId, int limit) {
+        return toCommentDtos(commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(itemId,
+                PageRequest.of(0, limit)));
+    }
+
+    private static List<CommentResponseDto> toCommentDtos(List<Comment> comments) {
+        return comments.stream()
                 .map(CommentMapper::toCommentResponseDto)
                 .collect(Collectors.toList());
-
-        return ItemMapper.toItemDto(
-                item,
-                lastBooking.orElse(null),
-                nextBooking.orElse(null),
-                commentDtos
-        );
     }
 
     private void validateItemForCreation(ItemCreateDto itemDto) {
@@ -18,11 +18,28 @@ public class ItemDto {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    private Long commentCount;
 
     private BookingInfo lastBooking;
     private BookingInfo nextBooking;
     private List<CommentResponseDto> comments;
 
+    // Конструктор для JPQL-проекций: только собственные поля вещи
+    public ItemDto(Long id, String name, String description, Boolean available, Long ownerId, Long requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.ownerId = ownerId;
+        this.requestId = requestId;
+    }
+
+    public ItemDto(Long id, String name, String description, Boolean available, Long ownerId, Long requestId,
+                   Long commentCount) {
+        this(id, name, description, available, ownerId, requestId);
+        this.commentCount = commentCount;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
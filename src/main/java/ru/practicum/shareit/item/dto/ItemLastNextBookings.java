@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Проекция нативного запроса: последнее завершившееся и ближайшее будущее APPROVED бронирования вещи.
+ * Поля, для которых бронирования нет, равны null. Те же поля хранит ItemBookingTimeline.
+ */
+public interface ItemLastNextBookings {
+
+    Long getItemId();
+
+    Long getLastBookingId();
+
+    Long getLastBookerId();
+
+    Long getNextBookingId();
+
+    Long getNextBookerId();
+}
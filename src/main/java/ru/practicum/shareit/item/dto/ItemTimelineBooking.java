@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция нативного запроса ленты одной вещи: одна строка на каждый найденный вид бронирования.
+ * kind — LAST (последнее завершившееся), ARCHIVED (последнее из архива), NEXT (ближайшее будущее)
+ * или ENDING (ближайшее по окончанию из ещё не завершившихся).
+ */
+public interface ItemTimelineBooking {
+
+    String getKind();
+
+    Long getId();
+
+    Long getBookerId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
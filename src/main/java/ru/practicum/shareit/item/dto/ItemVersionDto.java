@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Версия вещи и её денормализованное число отзывов — одно чтение строки по первичному ключу.
+ * Вместе с id встроенных отзывов из этого собирается ETag карточки без ленты бронирований.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemVersionDto {
+    private Long itemId;
+    private Long version;
+    private Long ownerId;
+    private Long commentCount;
+}
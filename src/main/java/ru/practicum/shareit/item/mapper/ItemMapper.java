@@ -1,9 +1,9 @@
 package ru.practicum.shareit.item.mapper;
 
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemLastNextBookings;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -23,44 +23,35 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
     public static ItemDto toItemDto(Item item,
-                                    Booking lastBooking,
-                                    Booking nextBooking,
+                                    ItemLastNextBookings bookings,
                                     List<CommentResponseDto> comments) {
         if (item == null) {
             return null;
         }
 
-        ItemDto.BookingInfo lastBookingInfo = null;
-        if (lastBooking != null) {
-            lastBookingInfo = ItemDto.BookingInfo.builder()
-                    .id(lastBooking.getId())
-                    .bookerId(lastBooking.getBooker() != null ? lastBooking.getBooker().getId() : null)
-                    .build();
+        ItemDto itemDto = toItemDto(item);
+
+        if (bookings != null && bookings.getLastBookingId() != null) {
+            itemDto.setLastBooking(ItemDto.BookingInfo.builder()
+                    .id(bookings.getLastBookingId())
+                    .bookerId(bookings.getLastBookerId())
+                    .build());
         }
 
-        ItemDto.BookingInfo nextBookingInfo = null;
-        if (nextBooking != null) {
-            nextBookingInfo = ItemDto.BookingInfo.builder()
-                    .id(nextBooking.getId())
-                    .bookerId(nextBooking.getBooker() != null ? nextBooking.getBooker().getId() : null)
-                    .build();
+        if (bookings != null && bookings.getNextBookingId() != null) {
+            itemDto.setNextBooking(ItemDto.BookingInfo.builder()
+                    .id(bookings.getNextBookingId())
+                    .bookerId(bookings.getNextBookerId())
+                    .build());
         }
 
-        return ItemDto.builder()
-                .id(item.getId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .available(item.getAvailable())
-                .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
-                .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
-                .lastBooking(lastBookingInfo)
-                .nextBooking(nextBookingInfo)
-                .comments(comments)
-                .build();
+        itemDto.setComments(comments);
+        return itemDto;
     }
 
     public static Item toItem(ItemCreateDto itemCreateDto, User owner) {
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.request.ItemRequest;
@@ -10,7 +12,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_owner_id", columnList = "owner_id, id"),
+        @Index(name = "idx_items_request_id", columnList = "request_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +26,8 @@ import java.util.List;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -39,6 +47,18 @@ public class Item {
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    // Версия строки: оптимистическая блокировка и ETag карточек
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    // Денормализованное число комментариев; растёт атомарным UPDATE в addComment,
+    // поэтому сохранение сущности его не перезаписывает
+    @Builder.Default
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private Long commentCount = 0L;
+
     @OneToMany(mappedBy = "item", fetch = FetchType.LAZY)
     private List<Booking> bookings = new ArrayList<>();
 
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemLastNextBookings;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последнее завершившееся и ближайшее будущее APPROVED бронирования вещи.
+ * Запись верна до момента validUntil — начала следующего бронирования
+ * или окончания ближайшего из идущих; null означает, что запись не устареет сама.
+ * generation растёт при каждом сбросе: пересчёт сохраняется, только если запись не сбрасывали после её чтения.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_timeline", indexes = {
+        @Index(name = "idx_timeline_last_booker", columnList = "last_booker_id"),
+        @Index(name = "idx_timeline_next_booker", columnList = "next_booker_id")
+})
+public class ItemBookingTimeline implements ItemLastNextBookings {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    @Column(name = "generation", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long generation;
+
+    public boolean isValidAt(LocalDateTime time) {
+        return validUntil == null || time.isBefore(validUntil);
+    }
+}
@@ -1,15 +1,37 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findAllByItemIdOrderByCreatedDesc(Long itemId);
+    // Карточка вещи читается часто, а комментарии добавляются редко — результат кэшируется.
+    // Авторы подтягиваются из кэша второго уровня, а при промахе — пачкой (default_batch_fetch_size)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Comment> findAllByItemIdOrderByCreatedDescIdDesc(Long itemId, Pageable pageable);
 
-    List<Comment> findAllByItemIdInOrderByCreatedDesc(List<Long> itemIds);
-}
\ No newline at end of file
+    // Id встроенных в карточку комментариев для ETag; кэшируется так же, как сами комментарии
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT c.id FROM Comment c WHERE c.item.id = :itemId ORDER BY c.created DESC, c.id DESC")
+    List<Long> findLatestIdsByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    // Не больше limit последних комментариев на каждую вещь страницы — одним запросом с ROW_NUMBER()
+    @Query(value = "SELECT id, text, item_id, author_id, created, version FROM (" +
+            "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments c " +
+            "WHERE c.item_id IN (:itemIds)) ranked " +
+            "WHERE rn <= :limit " +
+            "ORDER BY item_id, created DESC, id DESC", nativeQuery = true)
+    List<Comment> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+}
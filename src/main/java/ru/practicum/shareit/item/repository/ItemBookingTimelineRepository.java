@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingTimeline;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ItemBookingTimelineRepository extends JpaRepository<ItemBookingTimeline, Long> {
+
+    // Запись вещи создаётся один раз; параллельная вставка той же вещи ничего не меняет
+    @Modifying
+    @Query(value = "INSERT INTO item_booking_timeline " +
+            "(item_id, last_booking_id, last_booker_id, next_booking_id, next_booker_id, valid_until, generation) " +
+            "VALUES (:itemId, :lastBookingId, :lastBookerId, :nextBookingId, :nextBookerId, :validUntil, 0) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("itemId") Long itemId,
+                       @Param("lastBookingId") Long lastBookingId,
+                       @Param("lastBookerId") Long lastBookerId,
+                       @Param("nextBookingId") Long nextBookingId,
+                       @Param("nextBookerId") Long nextBookerId,
+                       @Param("validUntil") LocalDateTime validUntil);
+
+    @Modifying
+    @Query("UPDATE ItemBookingTimeline t SET t.lastBookingId = :lastBookingId, t.lastBookerId = :lastBookerId, " +
+            "t.nextBookingId = :nextBookingId, t.nextBookerId = :nextBookerId, t.validUntil = :validUntil " +
+            "WHERE t.itemId = :itemId AND t.generation = :generation")
+    int updateIfGeneration(@Param("itemId") Long itemId,
+                           @Param("generation") long generation,
+                           @Param("lastBookingId") Long lastBookingId,
+                           @Param("lastBookerId") Long lastBookerId,
+                           @Param("nextBookingId") Long nextBookingId,
+                           @Param("nextBookerId") Long nextBookerId,
+                           @Param("validUntil") LocalDateTime validUntil);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingTimeline t SET t.validUntil = :now, t.generation = t.generation + 1 " +
+            "WHERE t.itemId = :itemId")
+    int markStale(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    // Записи, в которых арендатор — удаляемый пользователь; по условию на запрос, чтобы каждый шёл по своему индексу
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingTimeline t SET t.validUntil = :now, t.generation = t.generation + 1 " +
+            "WHERE t.lastBookerId = :bookerId")
+    int markStaleByLastBooker(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ItemBookingTimeline t SET t.validUntil = :now, t.generation = t.generation + 1 " +
+            "WHERE t.nextBookerId = :bookerId")
+    int markStaleByNextBooker(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+}
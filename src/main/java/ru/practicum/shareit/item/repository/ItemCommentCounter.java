@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemCommentCounter {
+
+    // Атомарный инкремент не конфликтует с @Version сущности при параллельных отзывах
+    int incrementCommentCount(Long itemId);
+}
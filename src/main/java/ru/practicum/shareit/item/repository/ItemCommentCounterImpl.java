@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.TransactionCallbacks;
+
+/**
+ * Счётчик обновляется через JDBC в той же транзакции: массовый запрос Hibernate (JPQL или native)
+ * сбросил бы при выполнении весь регион items и кэш запросов. Здесь из кэша второго уровня
+ * после коммита убирается только изменённая вещь.
+ */
+@RequiredArgsConstructor
+public class ItemCommentCounterImpl implements ItemCommentCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public int incrementCommentCount(Long itemId) {
+        int updated = jdbcTemplate.update("UPDATE items SET comment_count = comment_count + 1 WHERE id = ?", itemId);
+        TransactionCallbacks.afterCommit(() -> entityManagerFactory.getCache().evict(Item.class, itemId));
+        return updated;
+    }
+}
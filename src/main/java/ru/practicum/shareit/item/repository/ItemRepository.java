@@ -1,41 +1,40 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionDto;
 import ru.practicum.shareit.item.model.Item;
 
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
-
-
-    List<Item> findAllByOwnerId(Long ownerId);
-
-    @Query("SELECT i FROM Item i " +
-            "WHERE i.available = true " +
-            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
-    List<Item> searchAvailableItems(@Param("text") String text);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.end < :currentTime " +
-            "ORDER BY b.end DESC")
-    Optional<Booking> findLastBooking(@Param("itemId") Long itemId,
-                                      @Param("currentTime") LocalDateTime currentTime);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start > :currentTime " +
-            "ORDER BY b.start ASC")
-    Optional<Booking> findNextBooking(@Param("itemId") Long itemId,
-                                      @Param("currentTime") LocalDateTime currentTime);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemCommentCounter {
+
+    boolean existsByOwnerId(Long ownerId);
+
+    List<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
+
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long itemId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(" +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id, i.commentCount) " +
+            "FROM Item i " +
+            "WHERE i.id IN :itemIds")
+    List<ItemDto> findItemDtosByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    // Строки вещей блокируются до конца транзакции, и подтверждения их бронирований идут по очереди
+    // на всех экземплярах приложения; порядок по id исключает взаимную блокировку
+    @Query(value = "SELECT id FROM items WHERE id IN (:itemIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemVersionDto(i.id, i.version, i.owner.id, i.commentCount) " +
+            "FROM Item i " +
+            "WHERE i.id = :itemId")
+    Optional<ItemVersionDto> findVersionById(@Param("itemId") Long itemId);
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс по названию и описанию вещей.
+ * Термы хранятся в отсортированной карте, поэтому слово запроса совпадает
+ * со всеми термами, которые с него начинаются. Релевантность — сумма весов
+ * вхождений (название весит больше описания, точное совпадение терма — больше префиксного).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BONUS = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+
+            Pageable page = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+            Page<Item> items;
+            do {
+                items = itemRepository.findAll(page);
+                items.forEach(this::doIndex);
+                page = items.nextPageable();
+            } while (items.hasNext());
+
+            log.info("Search index rebuilt: {} items, {} terms", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            doRemove(item.getId());
+            doIndex(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAllByOwner(Long ownerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> itemIds = documents.entrySet().stream()
+                    .filter(entry -> ownerId.equals(entry.getValue().getOwnerId()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            itemIds.forEach(this::doRemove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы доступных вещей, содержащих все слова запроса,
+     * в порядке убывания релевантности.
+     */
+    public List<Long> search(String text, int from, int size) {
+        Set<String> queryTokens = new LinkedHashSet<>(tokenize(text));
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+
+            for (String token : queryTokens) {
+                Map<Long, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + tokenScores.get(itemId));
+                }
+
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .filter(entry -> documents.get(entry.getKey()).isAvailable())
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip(from)
+                    .limit(size)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> scoreToken(String token) {
+        Map<Long, Integer> tokenScores = new HashMap<>();
+
+        postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                .forEach((term, termPostings) -> {
+                    int bonus = term.equals(token) ? EXACT_MATCH_BONUS : 1;
+                    termPostings.forEach((itemId, weight) -> tokenScores.merge(itemId, weight * bonus, Integer::sum));
+                });
+
+        return tokenScores;
+    }
+
+    private void doIndex(Item item) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(item.getName()).forEach(token -> weights.merge(token, NAME_WEIGHT, Integer::sum));
+        tokenize(item.getDescription()).forEach(token -> weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> postings
+                .computeIfAbsent(term, key -> new HashMap<>())
+                .put(item.getId(), weight));
+
+        Long ownerId = item.getOwner() != null ? item.getOwner().getId() : null;
+        documents.put(item.getId(), new IndexedItem(ownerId, Boolean.TRUE.equals(item.getAvailable()), weights.keySet()));
+    }
+
+    private void doRemove(Long itemId) {
+        IndexedItem removed = documents.remove(itemId);
+        if (removed == null) {
+            return;
+        }
+
+        for (String term : removed.getTerms()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(itemId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedItem {
+        private final Long ownerId;
+        private final boolean available;
+        private final Set<String> terms;
+    }
+}
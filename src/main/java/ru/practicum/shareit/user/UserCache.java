@@ -0,0 +1,88 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionCallbacks;
+
+import java.util.Optional;
+
+/**
+ * Локальный read-through кэш пользователей по id и индекс email → id.
+ * Отсутствие пользователя не кэшируется, поэтому проверка уникальности email
+ * для нового адреса всё равно идёт в БД, а окончательно её гарантирует unique-ограничение.
+ * Статистика попаданий публикуется в метриках cache.* с тегами cache=users.byId и cache=users.byEmail.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserDto> usersById;
+    private final Cache<String, Long> userIdsByEmail;
+
+    public UserCache(UserRepository userRepository, UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.userIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByEmail, "users.byEmail");
+    }
+
+    public Optional<UserDto> findById(Long userId) {
+        UserDto user = usersById.get(userId, id -> userRepository.findById(id)
+                .map(UserMapper::toUserDto)
+                .orElse(null));
+
+        if (user == null) {
+            return Optional.empty();
+        }
+
+        userIdsByEmail.put(user.getEmail(), user.getId());
+        return Optional.of(new UserDto(user.getId(), user.getName(), user.getEmail()));
+    }
+
+    public boolean existsById(Long userId) {
+        return findById(userId).isPresent();
+    }
+
+    public Optional<Long> findIdByEmail(String email) {
+        Long userId = userIdsByEmail.get(email, key -> userRepository.findByEmail(key)
+                .map(user -> {
+                    usersById.put(user.getId(), UserMapper.toUserDto(user));
+                    return user.getId();
+                })
+                .orElse(null));
+
+        return Optional.ofNullable(userId);
+    }
+
+    /**
+     * Сбрасывает записи пользователя сейчас и ещё раз после коммита,
+     * чтобы параллельное чтение не вернуло в кэш данные до изменения.
+     */
+    public void evict(Long userId, String email) {
+        doEvict(userId, email);
+        TransactionCallbacks.afterCommit(() -> doEvict(userId, email));
+    }
+
+    private void doEvict(Long userId, String email) {
+        usersById.invalidate(userId);
+        if (email != null) {
+            userIdsByEmail.invalidate(email);
+        }
+    }
+}
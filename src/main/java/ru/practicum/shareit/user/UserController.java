@@ -7,6 +7,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.BatchRowResult;
 
 import java.util.List;
 
@@ -23,6 +24,11 @@ public class UserController {
         return userService.createUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<BatchRowResult<UserDto>> createUsers(@RequestBody List<UserDto> userDtos) {
+        return userService.createUsers(userDtos);
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUserById(@PathVariable @Positive Long userId) {
         return userService.getUserById(userId);
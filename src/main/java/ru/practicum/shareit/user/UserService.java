@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.BatchRowResult;
 
 import java.util.List;
 
@@ -8,6 +9,8 @@ public interface UserService {
 
     UserDto createUser(UserDto userDto);
 
+    List<BatchRowResult<UserDto>> createUsers(List<UserDto> userDtos);
+
     UserDto getUserById(Long userId);
 
     List<UserDto> getAllUsers();
@@ -1,24 +1,43 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemBookingTimelineService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.BatchRowResult;
+import ru.practicum.shareit.util.TransactionCallbacks;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingTimelineService itemBookingTimelineService;
+    private final UserCache userCache;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Override
     @Transactional
@@ -26,21 +45,62 @@ public class UserServiceImpl implements UserService {
 
         validateUserForCreation(userDto);
 
-        userRepository.findByEmail(userDto.getEmail())
-                .ifPresent(user -> {
-                    throw new ConflictException("Email already exists: " + userDto.getEmail());
-                });
+        if (userCache.findIdByEmail(userDto.getEmail()).isPresent()) {
+            throw new ConflictException("Email already exists: " + userDto.getEmail());
+        }
 
         User user = UserMapper.toUser(userDto);
         User savedUser = userRepository.save(user);
         return UserMapper.toUserDto(savedUser);
     }
 
+    @Override
+    @Transactional
+    public List<BatchRowResult<UserDto>> createUsers(List<UserDto> userDtos) {
+        if (userDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+
+        // Занятые email проверяются одним запросом на весь пакет
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(userDtos.stream()
+                .filter(Objects::nonNull)
+                .map(UserDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())));
+
+        List<BatchRowResult<UserDto>> results = new ArrayList<>(userDtos.size());
+        Map<Integer, User> accepted = new LinkedHashMap<>();
+
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            try {
+                if (userDto == null) {
+                    throw new ValidationException("User cannot be null");
+                }
+                validateUserForCreation(userDto);
+                if (!takenEmails.add(userDto.getEmail())) {
+                    throw new ConflictException("Email already exists: " + userDto.getEmail());
+                }
+                accepted.put(i, UserMapper.toUser(userDto));
+                results.add(null);
+            } catch (ValidationException | ConflictException e) {
+                results.add(BatchRowResult.rejected(i, e.getMessage()));
+            }
+        }
+
+        // Вставки уходят в БД JDBC-пакетами при flush
+        userRepository.saveAll(accepted.values());
+        accepted.forEach((index, user) -> results.set(index,
+                BatchRowResult.created(index, UserMapper.toUserDto(user))));
+
+        log.info("Batch of {} users processed, {} created", userDtos.size(), accepted.size());
+        return results;
+    }
+
     @Override
     public UserDto getUserById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
-        return UserMapper.toUserDto(user);
     }
 
     @Override
@@ -55,6 +115,7 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(Long userId, UserDto userDto) {
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        String previousEmail = existingUser.getEmail();
 
         boolean updated = false;
 
@@ -76,10 +137,9 @@ public class UserServiceImpl implements UserService {
             }
 
             if (!userDto.getEmail().equals(existingUser.getEmail())) {
-                userRepository.findByEmail(userDto.getEmail())
-                        .ifPresent(user -> {
-                            throw new ConflictException("Email already exists: " + userDto.getEmail());
-                        });
+                if (userCache.findIdByEmail(userDto.getEmail()).isPresent()) {
+                    throw new ConflictException("Email already exists: " + userDto.getEmail());
+                }
                 existingUser.setEmail(userDto.getEmail());
                 updated = true;
             }
@@ -90,13 +150,27 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(existingUser);
+        userCache.evict(userId, previousEmail);
         return UserMapper.toUserDto(updatedUser);
     }
 
     @Override
     @Transactional
     public void deleteUser(Long userId) {
+        userCache.findById(userId)
+                .ifPresent(user -> userCache.evict(userId, user.getEmail()));
+        itemBookingTimelineService.invalidateByBooker(userId);
         userRepository.deleteById(userId);
+        // Вещи пользователя удаляются каскадно в БД, из поиска — только после коммита
+        TransactionCallbacks.afterCommit(() -> itemSearchIndex.removeAllByOwner(userId));
+        // Каскад идёт мимо Hibernate, поэтому кэш второго уровня для вещей и комментариев сбрасывается целиком
+        TransactionCallbacks.afterCommit(this::evictCascadedEntities);
+    }
+
+    private void evictCascadedEntities() {
+        entityManagerFactory.getCache().evict(Item.class);
+        entityManagerFactory.getCache().evict(Comment.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
     }
 
     private void validateUserForCreation(UserDto userDto) {
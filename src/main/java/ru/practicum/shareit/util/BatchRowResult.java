@@ -0,0 +1,37 @@
+package ru.practicum.shareit.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат обработки одной строки пакетного запроса.
+ * index — позиция строки во входном массиве.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchRowResult<T> {
+    private final int index;
+    private final Status status;
+    private final T result;
+    private final String error;
+
+    public static <T> BatchRowResult<T> created(int index, T result) {
+        return new BatchRowResult<>(index, Status.CREATED, result, null);
+    }
+
+    public static <T> BatchRowResult<T> updated(int index, T result) {
+        return new BatchRowResult<>(index, Status.UPDATED, result, null);
+    }
+
+    public static <T> BatchRowResult<T> rejected(int index, String error) {
+        return new BatchRowResult<>(index, Status.REJECTED, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        REJECTED
+    }
+}
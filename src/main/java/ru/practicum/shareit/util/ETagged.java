@@ -0,0 +1,14 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ответ вместе с ETag, посчитанным в той же транзакции: тело и ETag не расходятся.
+ */
+@Getter
+@AllArgsConstructor
+public class ETagged<T> {
+    private final T body;
+    private final String eTag;
+}
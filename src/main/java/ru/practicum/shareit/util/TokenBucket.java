@@ -0,0 +1,41 @@
+package ru.practicum.shareit.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок (алгоритм GCRA). Всё состояние — один момент времени fullAt,
+ * к которому корзина снова наполнится; списание токена сдвигает его на интервал пополнения
+ * одним compareAndSet. Время — в наносекундах System.nanoTime().
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long capacity, double tokensPerSecond, long now) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket needs positive capacity and refill rate");
+        }
+        this.nanosPerToken = Math.max(1L, (long) (1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Списывает токен. Возвращает 0, если токен был, иначе — сколько наносекунд ждать следующего.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long waitNanos = next - capacityNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
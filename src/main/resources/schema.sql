@@ -1,8 +1,18 @@
+-- Схема для тестового профиля; рабочая база обновляется через ddl-auto: update, и этот файл там не запускается.
+-- Поэтому индексы отсюда объявлены и в @Table сущностей — их недостающие Hibernate создаёт сам.
+
+-- Последовательности для id с шагом 50: Hibernate резервирует диапазон и пакетирует вставки.
+-- Если id уже выдавались identity-колонкой, последовательности при старте сдвигает IdSequenceInitializer
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 -- Таблица пользователей (users)
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
@@ -26,6 +36,8 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    version BIGINT DEFAULT 0 NOT NULL,
+    comment_count BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_item_owner FOREIGN KEY (owner_id)
         REFERENCES users(id) ON DELETE CASCADE,
@@ -41,12 +53,15 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(20) NOT NULL,
+    phase VARCHAR(10) DEFAULT 'FUTURE' NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_item FOREIGN KEY (item_id)
         REFERENCES items(id) ON DELETE CASCADE,
     CONSTRAINT fk_booking_booker FOREIGN KEY (booker_id)
         REFERENCES users(id) ON DELETE CASCADE,
-    CONSTRAINT check_booking_status CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED'))
+    CONSTRAINT check_booking_status CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED')),
+    CONSTRAINT check_booking_phase CHECK (phase IN ('FUTURE', 'CURRENT', 'PAST'))
 );
 
 -- Таблица комментариев (отзывов)
@@ -56,6 +71,7 @@ CREATE TABLE IF NOT EXISTS comments (
     item_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id),
     CONSTRAINT fk_comment_item FOREIGN KEY (item_id)
         REFERENCES items(id) ON DELETE CASCADE,
@@ -63,12 +79,102 @@ CREATE TABLE IF NOT EXISTS comments (
         REFERENCES users(id) ON DELETE CASCADE
 );
 
--- Индекс для быстрого поиска комментариев по вещи
-CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments(item_id);
+-- Версии строк (@Version) для оптимистической блокировки и ETag; для баз, созданных до их появления
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Фаза бронирования; у старых строк её выставит BookingPhaseTransitioner при первом запуске
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(10) DEFAULT 'FUTURE' NOT NULL;
+
+-- Число комментариев вещи; для баз, созданных до его появления, его досчитывает CommentCountInitializer
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
 
--- Индексы для улучшения производительности запросов
-CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items(owner_id);
+-- Комментарии вещи выдаются от новых к старым
+DROP INDEX IF EXISTS idx_comments_item_id;
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments(item_id, created DESC);
+
+-- Вещи владельца читаются страницами в порядке id
+DROP INDEX IF EXISTS idx_items_owner_id;
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items(owner_id, id);
 CREATE INDEX IF NOT EXISTS idx_items_request_id ON items(request_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_item_id ON bookings(item_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings(booker_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings(status);
\ No newline at end of file
+
+-- Индексы бронирований повторяют форму запросов BookingRepository.
+-- Одиночные индексы по item_id, booker_id и status покрываются составными и удалены.
+DROP INDEX IF EXISTS idx_bookings_item_id;
+DROP INDEX IF EXISTS idx_bookings_booker_id;
+DROP INDEX IF EXISTS idx_bookings_status;
+
+-- Списки арендатора: WHERE booker_id [AND status] ORDER BY start_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings(booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start
+    ON bookings(booker_id, status, start_date DESC, id DESC);
+
+-- Списки владельца (через items.owner_id) и выборки по вещи, упорядоченные по началу
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings(item_id, start_date DESC, id DESC);
+
+-- Списки CURRENT/PAST/FUTURE: равенство по фазе вместо диапазонов по start_date и end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings(booker_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings(item_id, phase, start_date DESC, id DESC);
+
+-- Поиск бронирований, которым пора сменить фазу
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings(phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings(phase, end_date);
+
+-- Следующее бронирование и пересечения: WHERE item_id AND status AND start_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings(item_id, status, start_date);
+
+-- Последнее бронирование и ближайшее окончание: WHERE item_id AND status AND end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings(item_id, status, end_date);
+
+-- Право на отзыв: завершённое бронирование вещи этим арендатором
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_status_end ON bookings(booker_id, item_id, status, end_date);
+
+-- Архив давно завершённых бронирований (APPROVED и CANCELED), см. BookingArchiver.
+-- Внешних ключей на bookings нет: строки переносятся с прежними id
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_archive_item FOREIGN KEY (item_id)
+        REFERENCES items(id) ON DELETE CASCADE,
+    CONSTRAINT fk_bookings_archive_booker FOREIGN KEY (booker_id)
+        REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Те же формы запросов, что и у bookings: списки арендатора и владельца, право на отзыв
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start
+    ON bookings_archive(booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start
+    ON bookings_archive(item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_item_status_end
+    ON bookings_archive(booker_id, item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_status_end ON bookings_archive(item_id, status, end_date);
+
+-- Материализованные последнее и следующее подтверждённые бронирования вещи
+CREATE TABLE IF NOT EXISTS item_booking_timeline (
+    item_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    valid_until TIMESTAMP WITHOUT TIME ZONE,
+    generation BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_item_booking_timeline PRIMARY KEY (item_id),
+    CONSTRAINT fk_timeline_item FOREIGN KEY (item_id)
+        REFERENCES items(id) ON DELETE CASCADE
+);
+
+-- Номер сброса записи ленты, см. ItemBookingTimeline
+ALTER TABLE item_booking_timeline ADD COLUMN IF NOT EXISTS generation BIGINT DEFAULT 0 NOT NULL;
+
+-- Сброс записей удаляемого арендатора: WHERE last_booker_id = ? и WHERE next_booker_id = ?
+CREATE INDEX IF NOT EXISTS idx_timeline_last_booker ON item_booking_timeline(last_booker_id);
+CREATE INDEX IF NOT EXISTS idx_timeline_next_booker ON item_booking_timeline(next_booker_id);
@@ -0,0 +1,194 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+import ru.practicum.shareit.booking.service.BookingPhaseTransitioner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * После переноса старых бронирований в bookings_archive ответы API не должны меняться:
+ * списки ALL и PAST (страницы по from и по курсору, блокирующие и реактивные), счётчики,
+ * последнее бронирование в списке вещей владельца и право арендатора оставить отзыв.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingArchiveTests {
+
+    private static final long OWNER_ID = 910_001L;
+    private static final long BOOKER_ID = 910_002L;
+    private static final long STRANGER_ID = 910_003L;
+    private static final long FIRST_ITEM_ID = 910_001L;
+    private static final long ARCHIVED_ITEM_ID = 910_002L;
+    private static final long FIRST_BOOKING_ID = 910_001L;
+    private static final int OLD_APPROVED_OR_CANCELED = 8;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingPhaseTransitioner phaseTransitioner;
+
+    @Autowired
+    private BookingArchiver archiver;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@archive.test'), " +
+                "(?, 'booker', 'booker@archive.test')", OWNER_ID, BOOKER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?), (?, 'Tent', 'Family tent', TRUE, ?)",
+                FIRST_ITEM_ID, OWNER_ID, ARCHIVED_ITEM_ID, OWNER_ID);
+
+        now = LocalDateTime.now();
+        long id = FIRST_BOOKING_ID;
+        // Старые бронирования: подтверждённые и отменённые уйдут в архив, остальные останутся
+        for (int i = 0; i < OLD_APPROVED_OR_CANCELED; i++) {
+            LocalDateTime start = now.minusDays(400 + i * 3L);
+            BookingStatus status = i % 4 == 3 ? BookingStatus.CANCELED : BookingStatus.APPROVED;
+            insertBooking(id++, start, start.plusDays(1), i % 2 == 0 ? FIRST_ITEM_ID : ARCHIVED_ITEM_ID, status);
+        }
+        insertBooking(id++, now.minusDays(390), now.minusDays(389), FIRST_ITEM_ID, BookingStatus.REJECTED);
+        insertBooking(id++, now.minusDays(420), now.minusDays(419), FIRST_ITEM_ID, BookingStatus.WAITING);
+        // Долгое бронирование началось раньше архивных, но закончилось недавно и остаётся в bookings
+        insertBooking(id++, now.minusDays(500), now.minusDays(5), FIRST_ITEM_ID, BookingStatus.APPROVED);
+        insertBooking(id++, now.minusDays(3), now.minusDays(2), FIRST_ITEM_ID, BookingStatus.APPROVED);
+        insertBooking(id++, now.minusHours(1), now.plusHours(1), FIRST_ITEM_ID, BookingStatus.APPROVED);
+        insertBooking(id, now.plusDays(2), now.plusDays(3), FIRST_ITEM_ID, BookingStatus.WAITING);
+
+        phaseTransitioner.advance();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM comments WHERE author_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM bookings_archive WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id IN (?, ?)",
+                FIRST_ITEM_ID, ARCHIVED_ITEM_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", OWNER_ID, BOOKER_ID);
+    }
+
+    @Test
+    void responsesDoNotChangeAfterArchiving() {
+        Map<String, String> before = snapshot();
+
+        assertEquals(OLD_APPROVED_OR_CANCELED, archiver.archiveEndedBefore(now.minusDays(30)));
+        assertEquals(OLD_APPROVED_OR_CANCELED, countRows("bookings_archive"));
+        assertEquals(6, countRows("bookings"));
+
+        Map<String, String> after = snapshot();
+        before.forEach((request, response) -> assertEquals(response, after.get(request), request));
+    }
+
+    @Test
+    void archivedBookingCardKeepsBodyAndETag() {
+        String url = "/bookings/" + FIRST_BOOKING_ID;
+        ResponseEntity<String> before = get(url, BOOKER_ID);
+
+        archiver.archiveEndedBefore(now.minusDays(30));
+
+        ResponseEntity<String> after = get(url, OWNER_ID);
+        assertEquals(before.getBody(), after.getBody());
+        assertEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+
+        HttpHeaders conditional = userHeader(BOOKER_ID);
+        conditional.setIfNoneMatch(before.getHeaders().getETag());
+        ResponseEntity<String> notModified = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(conditional),
+                String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+
+        ResponseEntity<String> stranger = rest.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(userHeader(STRANGER_ID)), String.class);
+        assertEquals(HttpStatus.NOT_FOUND, stranger.getStatusCode());
+    }
+
+    @Test
+    void archivedBookingStillAllowsComment() {
+        archiver.archiveEndedBefore(now.minusDays(30));
+
+        ResponseEntity<String> response = rest.exchange("/items/" + ARCHIVED_ITEM_ID + "/comment", HttpMethod.POST,
+                new HttpEntity<>(Map.of("text", "Still a great tent"), userHeader(BOOKER_ID)), String.class);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response.getBody());
+    }
+
+    private Map<String, String> snapshot() {
+        Map<String, String> responses = new LinkedHashMap<>();
+        for (String path : List.of("/bookings", "/bookings/owner", "/reactive/bookings", "/reactive/bookings/owner")) {
+            long userId = path.endsWith("owner") ? OWNER_ID : BOOKER_ID;
+            for (String state : List.of("ALL", "PAST")) {
+                for (String query : List.of("?size=100", "?size=3", "?size=3&from=3", "?size=3&from=9")) {
+                    String url = path + query + "&state=" + state;
+                    responses.put(url, get(url, userId).getBody());
+                }
+                String url = path + "?size=4&state=" + state;
+                responses.put(url + " by cursor", String.join("\n", pagesByCursor(url, userId)));
+            }
+        }
+        responses.put("/bookings/summary", get("/bookings/summary", BOOKER_ID).getBody());
+        responses.put("/bookings/owner/summary", get("/bookings/owner/summary", OWNER_ID).getBody());
+        responses.put("/items", get("/items", OWNER_ID).getBody());
+        return responses;
+    }
+
+    private List<String> pagesByCursor(String url, long userId) {
+        List<String> pages = new ArrayList<>();
+        ResponseEntity<String> page = get(url + "&cursor=", userId);
+        pages.add(page.getBody());
+        while (page.getHeaders().getFirst("X-Next-Cursor") != null) {
+            page = get(url + "&cursor=" + page.getHeaders().getFirst("X-Next-Cursor"), userId);
+            pages.add(page.getBody());
+        }
+        return pages;
+    }
+
+    private void insertBooking(long id, LocalDateTime start, LocalDateTime end, long itemId, BookingStatus status) {
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, BOOKER_ID, status.name());
+    }
+
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE booker_id = ?",
+                Integer.class, BOOKER_ID);
+    }
+
+    private ResponseEntity<String> get(String url, long userId) {
+        ResponseEntity<String> response = rest.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(userHeader(userId)), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), url);
+        return response;
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
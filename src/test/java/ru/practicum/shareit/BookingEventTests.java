@@ -0,0 +1,174 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.test.StepVerifier;
+import ru.practicum.shareit.booking.BookingEventsProperties;
+import ru.practicum.shareit.booking.dto.BookingChangedEvent;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingEventBroadcaster;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * События бронирований получают только арендатор и владелец вещи и только после коммита;
+ * подписчик, который не читает поток, теряет события сверх своего буфера, и потери считаются в метрике.
+ */
+@SpringBootTest
+class BookingEventTests {
+
+    private static final long OWNER_ID = 905_001L;
+    private static final long BOOKER_ID = 905_002L;
+    private static final long STRANGER_ID = 905_003L;
+    private static final long ITEM_ID = 905_001L;
+    private static final long STRANGER_ITEM_ID = 905_002L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private BookingEventBroadcaster broadcaster;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingEventsProperties eventsProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@events.test'), " +
+                        "(?, 'booker', 'booker@events.test'), (?, 'stranger', 'stranger@events.test')",
+                OWNER_ID, BOOKER_ID, STRANGER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                        "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?), (?, 'Tent', 'Family tent', TRUE, ?)",
+                ITEM_ID, OWNER_ID, STRANGER_ITEM_ID, OWNER_ID);
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE item_id IN (?, ?)", ITEM_ID, STRANGER_ITEM_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id IN (?, ?)", ITEM_ID, STRANGER_ITEM_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", OWNER_ID, BOOKER_ID, STRANGER_ID);
+    }
+
+    @Test
+    void onlyParticipantsReceiveBookingEvents() {
+        StepVerifier booker = StepVerifier.create(broadcaster.subscribe(BOOKER_ID))
+                .assertNext(booking -> assertBooking(booking, BOOKER_ID, ITEM_ID))
+                .thenCancel()
+                .verifyLater();
+        StepVerifier owner = StepVerifier.create(broadcaster.subscribe(OWNER_ID))
+                .assertNext(booking -> assertBooking(booking, BOOKER_ID, ITEM_ID))
+                .thenCancel()
+                .verifyLater();
+        // Первым у постороннего должно прийти его собственное бронирование, а не чужое
+        StepVerifier stranger = StepVerifier.create(broadcaster.subscribe(STRANGER_ID))
+                .assertNext(booking -> assertBooking(booking, STRANGER_ID, STRANGER_ITEM_ID))
+                .thenCancel()
+                .verifyLater();
+
+        bookingService.createBooking(bookingDto(ITEM_ID), BOOKER_ID);
+        bookingService.createBooking(bookingDto(STRANGER_ITEM_ID), STRANGER_ID);
+
+        booker.verify(TIMEOUT);
+        owner.verify(TIMEOUT);
+        stranger.verify(TIMEOUT);
+    }
+
+    @Test
+    void rolledBackBookingPublishesNothing() {
+        StepVerifier booker = StepVerifier.create(broadcaster.subscribe(BOOKER_ID))
+                .assertNext(booking -> assertEquals(STRANGER_ITEM_ID, booking.getItem().getId()))
+                .thenCancel()
+                .verifyLater();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.createBooking(bookingDto(ITEM_ID), BOOKER_ID);
+            status.setRollbackOnly();
+        });
+        bookingService.createBooking(bookingDto(STRANGER_ITEM_ID), BOOKER_ID);
+
+        booker.verify(TIMEOUT);
+        assertEquals(1, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE booker_id = ?",
+                Integer.class, BOOKER_ID));
+    }
+
+    @Test
+    void slowSubscriberDropsOverflowAndCountsIt() {
+        int overflow = 3;
+        int events = eventsProperties.getBufferSize() + overflow;
+        double droppedBefore = droppedCount();
+
+        // Подписчик ничего не запрашивает, пока не отправлены все события
+        StepVerifier.create(broadcaster.subscribe(BOOKER_ID), 0)
+                .expectSubscription()
+                .then(() -> {
+                    for (long id = 1; id <= events; id++) {
+                        broadcaster.onBookingChanged(new BookingChangedEvent(event(id)));
+                    }
+                })
+                .then(() -> assertEquals(droppedBefore + overflow, droppedCount()))
+                // DROP_OLDEST: в буфере остались последние события
+                .thenRequest(1)
+                .assertNext(booking -> assertEquals(overflow + 1, booking.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    private double droppedCount() {
+        return meterRegistry.counter("shareit.booking.events.dropped").count();
+    }
+
+    private BookingResponseDto event(long bookingId) {
+        return BookingResponseDto.builder()
+                .id(bookingId)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .booker(new UserDto(BOOKER_ID, "booker", "booker@events.test"))
+                .item(ItemDto.builder().id(ITEM_ID).ownerId(OWNER_ID).build())
+                .build();
+    }
+
+    private BookingDto bookingDto(long itemId) {
+        return BookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    private static void assertBooking(BookingResponseDto booking, long bookerId, long itemId) {
+        assertEquals(bookerId, booking.getBooker().getId());
+        assertEquals(itemId, booking.getItem().getId());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+    }
+}
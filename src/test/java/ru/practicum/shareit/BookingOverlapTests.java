@@ -0,0 +1,171 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.util.BatchRowResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пересечения проверяются при подтверждении под блокировкой вещи: из конкурирующих подтверждений
+ * пересекающихся бронирований проходит одно, а подтверждение, сделанное мимо этого процесса
+ * (как на другом экземпляре), всё равно блокирует пересекающиеся бронирования.
+ */
+@SpringBootTest
+class BookingOverlapTests {
+
+    private static final long OWNER_ID = 940_001L;
+    private static final long BOOKER_ID = 940_002L;
+    private static final long CONCURRENT_ITEM_ID = 940_001L;
+    private static final long BATCH_ITEM_ID = 940_002L;
+    private static final long REMOTE_ITEM_ID = 940_003L;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong nextBookingId = new AtomicLong(940_001L);
+    private LocalDateTime start;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@overlap.test'), " +
+                "(?, 'booker', 'booker@overlap.test')", OWNER_ID, BOOKER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                        "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?), (?, 'Tent', 'Family tent', TRUE, ?), " +
+                        "(?, 'Kayak', 'Two-seat kayak', TRUE, ?)",
+                CONCURRENT_ITEM_ID, OWNER_ID, BATCH_ITEM_ID, OWNER_ID, REMOTE_ITEM_ID, OWNER_ID);
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id IN (?, ?, ?)",
+                CONCURRENT_ITEM_ID, BATCH_ITEM_ID, REMOTE_ITEM_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", OWNER_ID, BOOKER_ID);
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime roundStart = start.plusDays(round * 10L);
+                long first = insertWaiting(CONCURRENT_ITEM_ID, roundStart, roundStart.plusDays(2));
+                long second = insertWaiting(CONCURRENT_ITEM_ID, roundStart.plusDays(1), roundStart.plusDays(3));
+
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> firstApproved = executor.submit(() -> approve(barrier, first));
+                Future<Boolean> secondApproved = executor.submit(() -> approve(barrier, second));
+
+                assertTrue(firstApproved.get() ^ secondApproved.get(), "exactly one approval in round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ROUNDS, countApproved(CONCURRENT_ITEM_ID));
+    }
+
+    @Test
+    void batchRejectsBookingsOverlappingEachOther() {
+        long first = insertWaiting(BATCH_ITEM_ID, start, start.plusDays(2));
+        long overlapping = insertWaiting(BATCH_ITEM_ID, start.plusDays(1), start.plusDays(3));
+        long adjacent = insertWaiting(BATCH_ITEM_ID, start.plusDays(2), start.plusDays(4));
+
+        List<BatchRowResult<BookingResponseDto>> results =
+                bookingService.approveBookings(List.of(first, overlapping, adjacent), OWNER_ID, true);
+
+        assertEquals(BatchRowResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchRowResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Item is already booked for this time period", results.get(1).getError());
+        assertEquals(BatchRowResult.Status.UPDATED, results.get(2).getStatus());
+        assertEquals(2, countApproved(BATCH_ITEM_ID));
+    }
+
+    @Test
+    void batchRejectsRepeatedBookingId() {
+        long waiting = insertWaiting(BATCH_ITEM_ID, start, start.plusDays(1));
+
+        List<BatchRowResult<BookingResponseDto>> results =
+                bookingService.approveBookings(List.of(waiting, waiting), OWNER_ID, true);
+
+        assertEquals(BatchRowResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchRowResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Duplicate booking id in batch", results.get(1).getError());
+        assertEquals(1, countApproved(BATCH_ITEM_ID));
+    }
+
+    @Test
+    void approvalMadeOutsideThisProcessStillBlocksOverlaps() {
+        BookingResponseDto created = bookingService.createBooking(bookingDto(start, start.plusDays(2)), BOOKER_ID);
+
+        // Подтверждение с другого экземпляра меняет строку в БД мимо этого процесса
+        jdbcTemplate.update("UPDATE bookings SET status = 'APPROVED' WHERE id = ?", created.getId());
+
+        assertThrows(ValidationException.class, () ->
+                bookingService.createBooking(bookingDto(start.plusDays(1), start.plusDays(3)), BOOKER_ID));
+
+        long waiting = insertWaiting(REMOTE_ITEM_ID, start.plusDays(1), start.plusDays(3));
+        assertThrows(ValidationException.class, () -> bookingService.approveBooking(waiting, OWNER_ID, true));
+        assertEquals(1, countApproved(REMOTE_ITEM_ID));
+    }
+
+    private boolean approve(CyclicBarrier barrier, long bookingId) throws Exception {
+        barrier.await();
+        try {
+            bookingService.approveBooking(bookingId, OWNER_ID, true);
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+
+    private BookingDto bookingDto(LocalDateTime bookingStart, LocalDateTime bookingEnd) {
+        return BookingDto.builder()
+                .itemId(REMOTE_ITEM_ID)
+                .start(bookingStart)
+                .end(bookingEnd)
+                .build();
+    }
+
+    private long insertWaiting(long itemId, LocalDateTime bookingStart, LocalDateTime bookingEnd) {
+        long id = nextBookingId.getAndIncrement();
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                id, Timestamp.valueOf(bookingStart), Timestamp.valueOf(bookingEnd), itemId, BOOKER_ID,
+                BookingStatus.WAITING.name());
+        return id;
+    }
+
+    private int countApproved(long itemId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE item_id = ? AND status = 'APPROVED'",
+                Integer.class, itemId);
+    }
+}
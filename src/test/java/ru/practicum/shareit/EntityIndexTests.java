@@ -0,0 +1,49 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Рабочая база получает схему от ddl-auto: update, а schema.sql там не запускается.
+ * Поэтому каждый индекс из schema.sql должен появиться и в схеме, которую Hibernate строит по сущностям.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entity-indexes;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.sql.init.mode=never"
+})
+class EntityIndexTests {
+
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE INDEX IF NOT EXISTS (\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void entitiesDeclareEveryIndexFromSchema() throws IOException {
+        String schema = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8);
+        Set<String> expected = new TreeSet<>();
+        Matcher matcher = CREATE_INDEX.matcher(schema);
+        while (matcher.find()) {
+            expected.add(matcher.group(1).toLowerCase());
+        }
+
+        Set<String> created = new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class));
+
+        expected.removeAll(created);
+        assertTrue(expected.isEmpty(), "Indexes missing from entity @Table declarations: " + expected);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.config.IdSequenceInitializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Последовательность, отставшая от уже выданных id (как после перехода с identity-колонки),
+ * при старте сдвигается за максимальный id, и следующий диапазон Hibernate его не повторяет.
+ */
+@SpringBootTest
+class IdSequenceTests {
+
+    private static final long LEGACY_USER_ID = 970_001L;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", LEGACY_USER_ID);
+    }
+
+    @Test
+    void movesSequencePastIdsIssuedWithoutIt() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'legacy', 'legacy@sequence.test')",
+                LEGACY_USER_ID);
+
+        idSequenceInitializer.alignSequences();
+        long hi = nextUserSequenceValue();
+        // Hibernate выдаёт id из диапазона (hi - allocationSize, hi]
+        assertTrue(hi - ALLOCATION_SIZE + 1 > LEGACY_USER_ID, "range ending at " + hi + " reuses issued ids");
+
+        // Повторный запуск не трогает последовательность, которая уже впереди
+        idSequenceInitializer.alignSequences();
+        assertEquals(hi + 2 * ALLOCATION_SIZE, nextUserSequenceValue());
+    }
+
+    private long nextUserSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT nextval('users_seq')", Long.class);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.ItemBookingTimelineService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Лента, посчитанная до подтверждения бронирования, не должна сохраниться после него:
+ * иначе запись без validUntil осталась бы устаревшей навсегда.
+ */
+@SpringBootTest
+class ItemBookingTimelineTests {
+
+    private static final long OWNER_ID = 950_001L;
+    private static final long BOOKER_ID = 950_002L;
+    private static final long STORE_WAIT_MILLIS = 5_000;
+    // Строки удаляются мимо Hibernate, а вещь остаётся в кэше второго уровня, поэтому у каждого теста своя вещь
+    private static final AtomicLong NEXT_ID = new AtomicLong(950_001L);
+
+    @Autowired
+    private ItemBookingTimelineService timelineService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long itemId;
+    private long bookingId;
+
+    @BeforeEach
+    void seed() {
+        itemId = NEXT_ID.getAndIncrement();
+        bookingId = itemId;
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@timeline.test'), " +
+                "(?, 'booker', 'booker@timeline.test')", OWNER_ID, BOOKER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?)", itemId, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", bookingId, Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusDays(1)), itemId, BOOKER_ID, BookingStatus.WAITING.name());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id = ?", itemId);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", OWNER_ID, BOOKER_ID);
+    }
+
+    @Test
+    void refreshWithoutStoredRowLosesToConcurrentApproval() throws Exception {
+        readThenApproveBeforeCommit();
+
+        assertStoredNextBooking();
+    }
+
+    @Test
+    void refreshOfStaleRowLosesToConcurrentApproval() throws Exception {
+        // Запись уже есть, но устарела по времени
+        timelineService.getTimeline(itemId);
+        awaitStoredRow();
+        jdbcTemplate.update("UPDATE item_booking_timeline SET valid_until = ? WHERE item_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), itemId);
+
+        readThenApproveBeforeCommit();
+
+        assertStoredNextBooking();
+    }
+
+    // Читатель пересчитывает ленту до подтверждения, а его транзакция завершается уже после него
+    private void readThenApproveBeforeCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertNull(timelineService.getTimeline(itemId).getNextBookingId());
+            CompletableFuture.runAsync(() -> bookingService.approveBooking(bookingId, OWNER_ID, true)).join();
+        });
+    }
+
+    private void assertStoredNextBooking() throws InterruptedException {
+        // Даём отложенному сохранению читателя отработать, затем ждём записи по свежим данным
+        Thread.sleep(200);
+        assertEquals(bookingId, timelineService.getTimeline(itemId).getNextBookingId());
+        Map<String, Object> row = awaitStoredRow();
+        assertEquals(bookingId, ((Number) row.get("next_booking_id")).longValue());
+    }
+
+    private Map<String, Object> awaitStoredRow() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + STORE_WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT * FROM item_booking_timeline WHERE item_id = ? " +
+                            "AND (valid_until IS NULL OR valid_until > CURRENT_TIMESTAMP)", itemId);
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+            timelineService.getTimeline(itemId);
+            Thread.sleep(20);
+        }
+        return fail("Timeline for item " + itemId + " was not stored");
+    }
+}
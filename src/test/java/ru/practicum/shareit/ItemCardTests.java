@@ -0,0 +1,210 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Карточка вещи: бронирования видит только владелец, и только для него читается лента бронирований,
+ * из которой пропадают бронирования удалённого арендатора;
+ * число комментариев в публичной карточке ограничено; If-None-Match с текущим ETag даёт 304.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemCardTests {
+
+    private static final long OWNER_ID = 980_001L;
+    private static final long BOOKER_ID = 980_002L;
+    private static final long VIEWER_ID = 980_003L;
+    private static final long ITEM_ID = 980_001L;
+    private static final long LAST_BOOKING_ID = 980_001L;
+    private static final long NEXT_BOOKING_ID = 980_002L;
+    private static final long STORE_WAIT_MILLIS = 5_000;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@card.test'), " +
+                "(?, 'booker', 'booker@card.test'), (?, 'viewer', 'viewer@card.test')", OWNER_ID, BOOKER_ID, VIEWER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?)", ITEM_ID, OWNER_ID);
+
+        LocalDateTime now = LocalDateTime.now();
+        insertApproved(LAST_BOOKING_ID, now.minusDays(3), now.minusDays(2));
+        insertApproved(NEXT_BOOKING_ID, now.plusDays(2), now.plusDays(3));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id = ?", ITEM_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", OWNER_ID, BOOKER_ID, VIEWER_ID);
+    }
+
+    @Test
+    void onlyOwnerSeesBookingsAndReadsTimeline() throws Exception {
+        for (HttpHeaders headers : new HttpHeaders[]{userHeader(VIEWER_ID), userHeader(BOOKER_ID), new HttpHeaders()}) {
+            JsonNode item = getJson("/items/" + ITEM_ID, headers);
+            assertTrue(item.get("lastBooking").isNull(), item.toString());
+            assertTrue(item.get("nextBooking").isNull(), item.toString());
+        }
+        JsonNode card = getJson("/items/" + ITEM_ID + "/card", userHeader(OWNER_ID));
+        assertTrue(card.get("lastBooking").isNull(), card.toString());
+
+        // Чтение ленты сохранило бы её строку после коммита; у не-владельцев её быть не должно
+        Thread.sleep(200);
+        assertEquals(0, countTimelineRows());
+
+        JsonNode owned = getJson("/items/" + ITEM_ID, userHeader(OWNER_ID));
+        assertEquals(LAST_BOOKING_ID, owned.get("lastBooking").get("id").asLong());
+        assertEquals(NEXT_BOOKING_ID, owned.get("nextBooking").get("id").asLong());
+        awaitTimelineRow();
+    }
+
+    @Test
+    void deletedBookerLeavesOwnerTimeline() throws Exception {
+        JsonNode owned = getJson("/items/" + ITEM_ID, userHeader(OWNER_ID));
+        assertEquals(NEXT_BOOKING_ID, owned.get("nextBooking").get("id").asLong());
+        awaitTimelineRow();
+
+        // Бронирования арендатора удаляются каскадом в БД, а сохранённая лента ещё действительна по времени
+        userService.deleteUser(BOOKER_ID);
+
+        JsonNode afterDelete = getJson("/items/" + ITEM_ID, userHeader(OWNER_ID));
+        assertTrue(afterDelete.get("lastBooking").isNull(), afterDelete.toString());
+        assertTrue(afterDelete.get("nextBooking").isNull(), afterDelete.toString());
+    }
+
+    @Test
+    void cardLimitsCommentsSize() {
+        assertEquals(HttpStatus.OK, getCard("?commentsSize=100").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, getCard("?commentsSize=101").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, getCard("?commentsSize=0").getStatusCode());
+    }
+
+    @Test
+    void cardAnswersNotModifiedUntilItemChanges() {
+        ResponseEntity<String> first = getCard("");
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, getCard("", etag).getStatusCode());
+        // Размер страницы комментариев в ETag не входит: карточка с одним и тем же содержимым
+        assertEquals(HttpStatus.NOT_MODIFIED, getCard("?commentsSize=20", etag).getStatusCode());
+
+        itemService.updateItem(ITEM_ID, ItemDto.builder().description("Cordless drill, two batteries").build(),
+                OWNER_ID);
+
+        ResponseEntity<String> changed = getCard("", etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        assertTrue(changed.getBody().contains("two batteries"), changed.getBody());
+    }
+
+    @Test
+    void itemETagFromBodyMatchesETagFromVersions() {
+        for (long viewerId : new long[]{OWNER_ID, VIEWER_ID}) {
+            ResponseEntity<String> first = getItem(viewerId, null);
+            String etag = first.getHeaders().getETag();
+            assertNotNull(etag);
+            assertEquals(1, first.getHeaders().get(HttpHeaders.ETAG).size());
+
+            assertEquals(HttpStatus.NOT_MODIFIED, getItem(viewerId, etag).getStatusCode());
+
+            // Несовпавший ETag: ответ несёт один ETag, посчитанный вместе с телом
+            ResponseEntity<String> stale = getItem(viewerId, "\"stale\"");
+            assertEquals(HttpStatus.OK, stale.getStatusCode());
+            assertEquals(List.of(etag), stale.getHeaders().get(HttpHeaders.ETAG));
+        }
+    }
+
+    private ResponseEntity<String> getItem(long viewerId, String etag) {
+        HttpHeaders headers = userHeader(viewerId);
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        return rest.exchange("/items/" + ITEM_ID, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> getCard(String query) {
+        return rest.exchange("/items/" + ITEM_ID + "/card" + query, HttpMethod.GET, null, String.class);
+    }
+
+    private ResponseEntity<String> getCard(String query, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return rest.exchange("/items/" + ITEM_ID + "/card" + query, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+    }
+
+    private JsonNode getJson(String url, HttpHeaders headers) throws Exception {
+        ResponseEntity<String> response = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), url);
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private void insertApproved(long id, LocalDateTime start, LocalDateTime end) {
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                id, Timestamp.valueOf(start), Timestamp.valueOf(end), ITEM_ID, BOOKER_ID,
+                BookingStatus.APPROVED.name());
+    }
+
+    private int countTimelineRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_booking_timeline WHERE item_id = ?",
+                Integer.class, ITEM_ID);
+    }
+
+    // Положительный контроль: после чтения владельцем строка ленты появляется
+    private void awaitTimelineRow() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + STORE_WAIT_MILLIS;
+        while (countTimelineRows() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeline for the owner was not stored");
+            Thread.sleep(20);
+        }
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
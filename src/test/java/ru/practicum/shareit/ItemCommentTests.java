@@ -0,0 +1,226 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.config.CommentCountInitializer;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Отзывы: счётчик comment_count растёт с каждым отзывом и досчитывается для старых баз,
+ * из кэша второго уровня убирается только прокомментированная вещь, новый отзыв меняет ETag вещи,
+ * карточка и список владельца показывают не больше 10 последних отзывов, а остальные доступны постранично.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemCommentTests {
+
+    private static final long OWNER_ID = 990_001L;
+    private static final long AUTHOR_ID = 990_002L;
+    private static final long ITEM_ID = 990_001L;
+    private static final long OTHER_ITEM_ID = 990_002L;
+    private static final int EMBEDDED_COMMENTS = 10;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CommentCountInitializer commentCountInitializer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@comment.test'), " +
+                "(?, 'author', 'author@comment.test')", OWNER_ID, AUTHOR_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                        "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?), (?, 'Tent', 'Family tent', TRUE, ?)",
+                ITEM_ID, OWNER_ID, OTHER_ITEM_ID, OWNER_ID);
+
+        // Оставить отзыв может только тот, кто уже брал вещь
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?)",
+                ITEM_ID, Timestamp.valueOf(now.minusDays(3)), Timestamp.valueOf(now.minusDays(2)), ITEM_ID,
+                AUTHOR_ID, BookingStatus.APPROVED.name(),
+                OTHER_ITEM_ID, Timestamp.valueOf(now.minusDays(3)), Timestamp.valueOf(now.minusDays(2)),
+                OTHER_ITEM_ID, AUTHOR_ID, BookingStatus.APPROVED.name());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM comments WHERE author_id = ?", AUTHOR_ID);
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", AUTHOR_ID);
+        jdbcTemplate.update("DELETE FROM item_booking_timeline WHERE item_id IN (?, ?)", ITEM_ID, OTHER_ITEM_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", OWNER_ID, AUTHOR_ID);
+        // Строки удалены мимо Hibernate, а те же id снова появятся в следующем тесте
+        entityManagerFactory.getCache().evict(Item.class);
+    }
+
+    @Test
+    void commentIncrementsCounterAndEvictsOnlyCommentedItem() throws Exception {
+        assertEquals(0, getJson("/items/" + ITEM_ID).get("commentCount").asLong());
+        getJson("/items/" + OTHER_ITEM_ID);
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, ITEM_ID));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, OTHER_ITEM_ID));
+
+        addComment(ITEM_ID, "Works well");
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, ITEM_ID));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, OTHER_ITEM_ID));
+        assertEquals(1, getJson("/items/" + ITEM_ID).get("commentCount").asLong());
+
+        addComment(ITEM_ID, "Still works");
+        assertEquals(2, getJson("/items/" + ITEM_ID).get("commentCount").asLong());
+        assertEquals(0, getJson("/items/" + OTHER_ITEM_ID).get("commentCount").asLong());
+    }
+
+    @Test
+    void commentChangesItemETag() {
+        String etag = rest.getForEntity("/items/" + ITEM_ID, String.class).getHeaders().getETag();
+        assertEquals(HttpStatus.NOT_MODIFIED, getWithETag("/items/" + ITEM_ID, etag).getStatusCode());
+
+        addComment(ITEM_ID, "Works well");
+
+        ResponseEntity<String> changed = getWithETag("/items/" + ITEM_ID, etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertTrue(changed.getBody().contains("Works well"), changed.getBody());
+    }
+
+    @Test
+    void backfillCountsCommentsLeftBeforeTheCounter() {
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) VALUES (?, ?, ?, ?)",
+                    "Old comment " + i, ITEM_ID, AUTHOR_ID, Timestamp.valueOf(created.plusMinutes(i)));
+        }
+
+        commentCountInitializer.backfillCommentCounts();
+        assertEquals(3, commentCountColumn(ITEM_ID));
+        assertEquals(0, commentCountColumn(OTHER_ITEM_ID));
+
+        // Уже заполненный счётчик повторный запуск не трогает
+        jdbcTemplate.update("UPDATE items SET comment_count = 5 WHERE id = ?", ITEM_ID);
+        commentCountInitializer.backfillCommentCounts();
+        assertEquals(5, commentCountColumn(ITEM_ID));
+    }
+
+    @Test
+    void cardAndOwnerListEmbedOnlyLatestComments() throws Exception {
+        List<String> texts = addComments(EMBEDDED_COMMENTS + 2);
+        List<String> newestFirst = reversed(texts);
+
+        JsonNode item = getJson("/items/" + ITEM_ID);
+        assertEquals(EMBEDDED_COMMENTS + 2, item.get("commentCount").asLong());
+        assertEquals(newestFirst.subList(0, EMBEDDED_COMMENTS), commentTexts(item.get("comments")));
+
+        JsonNode ownerItems = getJson("/items", OWNER_ID);
+        JsonNode listed = ownerItems.get(0).get("id").asLong() == ITEM_ID ? ownerItems.get(0) : ownerItems.get(1);
+        assertEquals(newestFirst.subList(0, EMBEDDED_COMMENTS), commentTexts(listed.get("comments")));
+
+        JsonNode card = getJson("/items/" + ITEM_ID + "/card?commentsSize=" + (EMBEDDED_COMMENTS + 5));
+        assertEquals(newestFirst, commentTexts(card.get("comments")));
+    }
+
+    @Test
+    void commentsArePagedNewestFirst() throws Exception {
+        List<String> newestFirst = reversed(addComments(7));
+
+        assertEquals(newestFirst.subList(0, 3), commentTexts(getJson("/items/" + ITEM_ID + "/comments?size=3")));
+        assertEquals(newestFirst.subList(3, 6),
+                commentTexts(getJson("/items/" + ITEM_ID + "/comments?from=3&size=3")));
+        assertEquals(newestFirst.subList(6, 7),
+                commentTexts(getJson("/items/" + ITEM_ID + "/comments?from=6&size=3")));
+        assertEquals(List.of(), commentTexts(getJson("/items/" + ITEM_ID + "/comments?from=9&size=3")));
+        assertEquals(HttpStatus.BAD_REQUEST, rest.getForEntity("/items/" + ITEM_ID + "/comments?size=101",
+                String.class).getStatusCode());
+    }
+
+    private List<String> addComments(int count) {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String text = "Comment " + i;
+            addComment(ITEM_ID, text);
+            texts.add(text);
+        }
+        return texts;
+    }
+
+    private void addComment(long itemId, String text) {
+        ResponseEntity<String> response = rest.exchange("/items/" + itemId + "/comment", HttpMethod.POST,
+                new HttpEntity<>(Map.of("text", text), userHeader(AUTHOR_ID)), String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response.getBody());
+    }
+
+    private ResponseEntity<String> getWithETag(String url, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        ResponseEntity<String> response = rest.getForEntity(url, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), url);
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private JsonNode getJson(String url, long userId) throws Exception {
+        ResponseEntity<String> response = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(userHeader(userId)),
+                String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), url);
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private static List<String> commentTexts(JsonNode comments) {
+        List<String> texts = new ArrayList<>();
+        comments.forEach(comment -> texts.add(comment.get("text").asText()));
+        return texts;
+    }
+
+    private static List<String> reversed(List<String> texts) {
+        List<String> copy = new ArrayList<>(texts);
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    private long commentCountColumn(long itemId) {
+        return jdbcTemplate.queryForObject("SELECT comment_count FROM items WHERE id = ?", Long.class, itemId);
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Поиск по индексу: все слова запроса обязательны, совпадение в названии и точное совпадение
+ * слова весят больше, недоступные вещи не находятся, а откаченные изменения в индекс не попадают.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemSearchTests {
+
+    private static final long OWNER_ID = 930_001L;
+
+    private static final ParameterizedTypeReference<List<ItemDto>> ITEM_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long nameExact;
+    private long descriptionOnly;
+    private long namePrefix;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@search.test')", OWNER_ID);
+
+        // Вещи создаются через API, чтобы в индекс их добавил сам сервис
+        nameExact = createItem("Camping lantern", "Runs on batteries");
+        descriptionOnly = createItem("Lamp", "Bright lantern for camping");
+        namePrefix = createItem("Lanterns set", "Three paper lights");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", OWNER_ID);
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void ranksByFieldAndExactMatchAndRequiresEveryWord() {
+        assertEquals(List.of(nameExact, namePrefix, descriptionOnly), search("lantern", 0, 10));
+        assertEquals(List.of(nameExact, descriptionOnly), search("CAMPING lantern", 0, 10));
+        assertEquals(List.of(), search("lantern tent", 0, 10));
+    }
+
+    @Test
+    void pagesRankedResults() {
+        assertEquals(List.of(nameExact, namePrefix), search("lantern", 0, 2));
+        assertEquals(List.of(namePrefix), search("lantern", 1, 1));
+        assertEquals(List.of(descriptionOnly), search("lantern", 2, 10));
+        assertEquals(List.of(), search("lantern", 3, 10));
+    }
+
+    @Test
+    void hidesUnavailableItemsAfterCommitOnly() {
+        // Откаченное обновление не должно скрыть вещь из поиска
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemService.updateItem(nameExact, ItemDto.builder().available(false).build(), OWNER_ID);
+            status.setRollbackOnly();
+        });
+        assertEquals(List.of(nameExact, namePrefix, descriptionOnly), search("lantern", 0, 10));
+
+        itemService.updateItem(nameExact, ItemDto.builder().available(false).build(), OWNER_ID);
+        assertEquals(List.of(namePrefix, descriptionOnly), search("lantern", 0, 10));
+    }
+
+    private long createItem(String name, String description) {
+        ResponseEntity<ItemDto> response = rest.exchange("/items", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", name, "description", description, "available", true), ownerHeader()),
+                ItemDto.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody().getId();
+    }
+
+    private List<Long> search(String text, int from, int size) {
+        ResponseEntity<List<ItemDto>> response = rest.exchange(
+                "/items/search?text={text}&from={from}&size={size}", HttpMethod.GET, null, ITEM_LIST,
+                text, from, size);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static HttpHeaders ownerHeader() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(OWNER_ID));
+        return headers;
+    }
+}
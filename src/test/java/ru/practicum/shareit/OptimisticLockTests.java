@@ -0,0 +1,90 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Изменение строки, которую уже поменял другой экземпляр (у этого в кэше второго уровня
+ * осталась прежняя версия), отклоняется по @Version ответом 409, а не 500.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OptimisticLockTests {
+
+    private static final long OWNER_ID = 915_001L;
+    private static final long ITEM_ID = 915_001L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TestRestTemplate rest;
+
+    @BeforeEach
+    void seed() {
+        // Клиент по умолчанию не умеет PATCH
+        rest = new TestRestTemplate(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + port)
+                .requestFactory(JdkClientHttpRequestFactory.class));
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@lock.test')", OWNER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?)", ITEM_ID, OWNER_ID);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", OWNER_ID);
+        entityManagerFactory.getCache().evict(Item.class);
+    }
+
+    @Test
+    void staleUpdateAnswersConflict() {
+        // Чтение кладёт вещь в кэш второго уровня
+        assertEquals(HttpStatus.OK, rest.getForEntity("/items/" + ITEM_ID, String.class).getStatusCode());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, ITEM_ID));
+
+        // Другой экземпляр меняет строку, а кэш этого процесса об этом не знает
+        jdbcTemplate.update("UPDATE items SET description = 'Hammer drill', version = version + 1 WHERE id = ?",
+                ITEM_ID);
+
+        ResponseEntity<String> response = rest.exchange("/items/" + ITEM_ID, HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("description", "Cordless drill, two batteries"), userHeader(OWNER_ID)),
+                String.class);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode(), response.getBody());
+        assertTrue(response.getBody().contains("modified concurrently"), response.getBody());
+        assertEquals("Hammer drill", jdbcTemplate.queryForObject("SELECT description FROM items WHERE id = ?",
+                String.class, ITEM_ID));
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
@@ -0,0 +1,256 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingTimelineRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Прогоняет каждый собственный запрос репозиториев, перехватывает сгенерированный SQL
+ * и проверяет через EXPLAIN (H2 в режиме PostgreSQL), что ни одна таблица не читается полным сканированием.
+ * Новый метод репозитория без сценария здесь тоже роняет тест.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.QueryPlanTests$SqlRecorder",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class QueryPlanTests {
+
+    // Фрагмент плана H2 вида /* PUBLIC.INDEX_NAME: CONDITION */ или /* PUBLIC.TABLE.tableScan */
+    private static final Pattern PLAN_ACCESS = Pattern.compile("/\\* PUBLIC\\.([^*]*?) \\*/");
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BookingRepository.class,
+            ArchivedBookingRepository.class,
+            ItemRepository.class,
+            CommentRepository.class,
+            UserRepository.class,
+            ItemBookingTimelineRepository.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemBookingTimelineRepository timelineRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clearRecorder() {
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void everyRepositoryQueryHasPlanCase() {
+        Set<String> declared = REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .filter(method -> !method.isSynthetic() && !method.isDefault())
+                .map(Method::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertEquals(declared, new TreeSet<>(queryCases().keySet()),
+                "Every repository method needs a plan case in QueryPlanTests");
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() {
+        List<String> failures = new ArrayList<>();
+
+        queryCases().forEach((name, query) -> {
+            SqlRecorder.STATEMENTS.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+
+            List<String> statements = new ArrayList<>(SqlRecorder.STATEMENTS);
+            assertFalse(statements.isEmpty(), name + " executed no SQL");
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                List<String> fullScans = fullScans(plan);
+                if (!fullScans.isEmpty()) {
+                    failures.add(name + " falls back to a full scan of " + fullScans + ":\n" + plan);
+                }
+            }
+        });
+
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private Map<String, Runnable> queryCases() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursorStart = now.plusYears(1);
+        PageRequest page = PageRequest.of(0, 10);
+        List<Long> ids = List.of(1L, 2L);
+        List<BookingStatus> tracked = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+
+        cases.put("findWithItemAndBookerById", () -> {
+            bookingRepository.findWithItemAndBookerById(1L);
+            archivedBookingRepository.findWithItemAndBookerById(1L);
+        });
+        cases.put("findAllWithItemAndBookerByIdIn", () -> bookingRepository.findAllWithItemAndBookerByIdIn(ids));
+        cases.put("updateWaitingStatus", () -> bookingRepository.updateWaitingStatus(ids, BookingStatus.APPROVED));
+        cases.put("findVersionById", () -> {
+            bookingRepository.findVersionById(1L);
+            itemRepository.findVersionById(1L);
+            archivedBookingRepository.findVersionById(1L);
+        });
+        cases.put("findIdsByPhaseAndEndBefore", () ->
+                bookingRepository.findIdsByPhaseAndEndBefore(BookingPhase.CURRENT, now, page));
+        cases.put("findIdsByPhaseAndStartNotAfter", () ->
+                bookingRepository.findIdsByPhaseAndStartNotAfter(BookingPhase.FUTURE, now, page));
+        cases.put("updatePhase", () -> bookingRepository.updatePhase(ids, BookingPhase.FUTURE, BookingPhase.CURRENT));
+        cases.put("findIdsToArchive", () -> bookingRepository.findIdsToArchive(now, tracked, page));
+        cases.put("deleteByIds", () -> bookingRepository.deleteByIds(ids));
+        cases.put("summarizeByBookerId", () -> bookingRepository.summarizeByBookerId(1L));
+        cases.put("summarizeByOwnerId", () -> bookingRepository.summarizeByOwnerId(1L));
+        cases.put("findByBookerId", () -> {
+            bookingRepository.findByBookerId(1L, cursorStart, 1L, page);
+            archivedBookingRepository.findByBookerId(1L, cursorStart, 1L, page);
+        });
+        cases.put("findByBookerIdAndPhase", () -> bookingRepository.findByBookerIdAndPhase(1L,
+                BookingPhase.CURRENT, cursorStart, 1L, page));
+        cases.put("findByBookerIdAndStatus", () -> bookingRepository.findByBookerIdAndStatus(1L,
+                BookingStatus.WAITING, cursorStart, 1L, page));
+        cases.put("findByOwnerId", () -> {
+            bookingRepository.findByOwnerId(1L, cursorStart, 1L, page);
+            archivedBookingRepository.findByOwnerId(1L, cursorStart, 1L, page);
+        });
+        cases.put("findByOwnerIdAndPhase", () -> bookingRepository.findByOwnerIdAndPhase(1L,
+                BookingPhase.CURRENT, cursorStart, 1L, page));
+        cases.put("findByOwnerIdAndStatus", () -> bookingRepository.findByOwnerIdAndStatus(1L,
+                BookingStatus.WAITING, cursorStart, 1L, page));
+        cases.put("existsByItemIdAndStatusAndStartBeforeAndEndAfter", () ->
+                bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(1L, BookingStatus.APPROVED,
+                        now.plusDays(1), now));
+        cases.put("findFirstByBookerIdAndItemIdAndStatusAndEndBefore", () ->
+                bookingRepository.findFirstByBookerIdAndItemIdAndStatusAndEndBefore(1L, 1L,
+                        BookingStatus.APPROVED, now));
+        cases.put("findLastAndNextBookingsForItems", () -> bookingRepository.findLastAndNextBookingsForItems(ids, now));
+        cases.put("findLastBookingsForItems", () -> archivedBookingRepository.findLastBookingsForItems(ids));
+        cases.put("findTimelineBookings", () -> bookingRepository.findTimelineBookings(1L, now));
+
+        cases.put("existsByOwnerId", () -> itemRepository.existsByOwnerId(1L));
+        cases.put("copyFromBookings", () -> archivedBookingRepository.copyFromBookings(ids, now));
+        cases.put("countByBookerId", () -> archivedBookingRepository.countByBookerId(1L));
+        cases.put("countByItemOwnerId", () -> archivedBookingRepository.countByItemOwnerId(1L));
+        cases.put("existsByBookerIdAndItemIdAndStatusAndEndBefore", () ->
+                archivedBookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(1L, 1L,
+                        BookingStatus.APPROVED, now));
+
+        cases.put("findAllByOwnerIdOrderByIdAsc", () -> itemRepository.findAllByOwnerIdOrderByIdAsc(1L, page));
+        cases.put("findAllByOwnerIdAndIdGreaterThanOrderByIdAsc", () ->
+                itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(1L, 0L, page));
+        cases.put("findItemDtosByIdIn", () -> itemRepository.findItemDtosByIdIn(ids));
+        cases.put("lockAllByIdIn", () -> itemRepository.lockAllByIdIn(ids));
+
+        cases.put("findAllByItemIdOrderByCreatedDescIdDesc", () ->
+                commentRepository.findAllByItemIdOrderByCreatedDescIdDesc(1L, page));
+        cases.put("findLatestByItemIdIn", () -> commentRepository.findLatestByItemIdIn(ids, 10));
+        cases.put("findLatestIdsByItemId", () -> commentRepository.findLatestIdsByItemId(1L, page));
+
+        cases.put("findByEmail", () -> userRepository.findByEmail("user@example.com"));
+        cases.put("findExistingEmails", () -> userRepository.findExistingEmails(List.of("user@example.com")));
+
+        cases.put("insertIfAbsent", () -> {
+            // Вставке нужна существующая вещь; запросы JdbcTemplate в план не попадают, транзакция откатывается
+            jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (960001, 'plan', 'plan@plan.test')");
+            jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) "
+                    + "VALUES (960001, 'Plan', 'Plan item', TRUE, 960001)");
+            timelineRepository.insertIfAbsent(960_001L, null, null, null, null, now);
+        });
+        cases.put("updateIfGeneration", () ->
+                timelineRepository.updateIfGeneration(1L, 0L, null, null, null, null, now));
+        cases.put("markStale", () -> timelineRepository.markStale(1L, now));
+        cases.put("markStaleByLastBooker", () -> timelineRepository.markStaleByLastBooker(1L, now));
+        cases.put("markStaleByNextBooker", () -> timelineRepository.markStaleByNextBooker(1L, now));
+
+        return cases;
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    // Полное сканирование — это tableScan или обход индекса без условия по его колонкам
+    private static List<String> fullScans(String plan) {
+        List<String> scans = new ArrayList<>();
+        Matcher matcher = PLAN_ACCESS.matcher(plan);
+        while (matcher.find()) {
+            String access = matcher.group(1);
+            if (access.endsWith(".tableScan") || !access.contains(":")) {
+                scans.add(access);
+            }
+        }
+        return scans;
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
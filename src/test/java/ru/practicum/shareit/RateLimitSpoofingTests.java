@@ -0,0 +1,79 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Смена X-Sharer-User-Id от запроса к запросу не обходит лимит: значения, которые не являются
+ * положительным id, учитываются по адресу клиента, а запись всегда списывается и с корзины адреса.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.rate-limit.enabled=true",
+        "shareit.rate-limit.read.capacity=3",
+        "shareit.rate-limit.read.refill-per-second=0.01",
+        "shareit.rate-limit.write.capacity=5",
+        "shareit.rate-limit.write.refill-per-second=0.01",
+        "shareit.rate-limit.address-write.capacity=2",
+        "shareit.rate-limit.address-write.refill-per-second=0.01"
+})
+class RateLimitSpoofingTests {
+
+    private static final int READ_CAPACITY = 3;
+    private static final int ADDRESS_WRITE_CAPACITY = 2;
+    private static final long FIRST_USER_ID = 925_001L;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@spoofing.test'");
+    }
+
+    @Test
+    void rotatingMalformedUserIdsShareAddressBudget() {
+        String[] headers = {"spoof-1", "-5", "0", "99999999999999999999"};
+        for (int i = 0; i < READ_CAPACITY; i++) {
+            assertEquals(HttpStatus.OK, get(headers[i]).getStatusCode());
+        }
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, get(headers[READ_CAPACITY]).getStatusCode());
+    }
+
+    @Test
+    void rotatingUserIdsDoesNotBypassAddressWriteBudget() {
+        for (int i = 0; i < ADDRESS_WRITE_CAPACITY; i++) {
+            assertEquals(HttpStatus.CREATED, createUser(FIRST_USER_ID + i).getStatusCode());
+        }
+        // У нового id своя полная корзина, но адрес свой бюджет на запись уже исчерпал
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, createUser(FIRST_USER_ID + ADDRESS_WRITE_CAPACITY).getStatusCode());
+    }
+
+    private ResponseEntity<String> get(String userHeader) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", userHeader);
+        return rest.exchange("/items/search?text=drill", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> createUser(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return rest.exchange("/users", HttpMethod.POST, new HttpEntity<>(
+                Map.of("name", "spoofer", "email", userId + "@spoofing.test"), headers), String.class);
+    }
+}
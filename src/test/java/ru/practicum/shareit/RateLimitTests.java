@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бюджеты на чтение и запись у каждого пользователя свои: исчерпанное чтение
+ * не мешает ни записи того же пользователя, ни чтению другого.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.rate-limit.enabled=true",
+        "shareit.rate-limit.read.capacity=3",
+        "shareit.rate-limit.read.refill-per-second=0.01",
+        "shareit.rate-limit.write.capacity=1",
+        "shareit.rate-limit.write.refill-per-second=0.01"
+})
+class RateLimitTests {
+
+    private static final long LIMITED_USER_ID = 920_001L;
+    private static final long OTHER_USER_ID = 920_002L;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@ratelimit.test'");
+    }
+
+    @Test
+    void rejectsRequestsOverBudgetWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, get(LIMITED_USER_ID).getStatusCode());
+        }
+
+        ResponseEntity<String> rejected = get(LIMITED_USER_ID);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertTrue(Long.parseLong(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)) > 0);
+        assertTrue(rejected.getBody().contains("Too many requests"), rejected.getBody());
+        assertEquals(1.0, meterRegistry.counter("shareit.ratelimit.rejected", "bucket", "read").count());
+
+        // Запись и другие пользователи считаются отдельно
+        ResponseEntity<String> created = rest.exchange("/users", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "limited", "email", "limited@ratelimit.test"),
+                        userHeader(LIMITED_USER_ID)), String.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode(), created.getBody());
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, get(OTHER_USER_ID).getStatusCode());
+
+        ResponseEntity<String> secondWrite = rest.exchange("/users", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "limited2", "email", "limited2@ratelimit.test"),
+                        userHeader(LIMITED_USER_ID)), String.class);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, secondWrite.getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("shareit.ratelimit.rejected", "bucket", "write").count());
+    }
+
+    private ResponseEntity<String> get(long userId) {
+        return rest.exchange("/items/search?text=drill", HttpMethod.GET,
+                new HttpEntity<>(userHeader(userId)), String.class);
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
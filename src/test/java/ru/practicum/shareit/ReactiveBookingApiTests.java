@@ -0,0 +1,187 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingPhaseTransitioner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Реактивные списки бронирований (R2DBC H2) должны отдавать то же, что и JPA-версия,
+ * для каждого состояния, страниц по from и по курсору (ALL и PAST — вместе с архивом), а также те же ошибки.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveBookingApiTests {
+
+    private static final long OWNER_ID = 900_001L;
+    private static final long BOOKER_ID = 900_002L;
+    private static final long STRANGER_ID = 900_003L;
+    private static final long FIRST_ITEM_ID = 900_001L;
+    private static final long SECOND_ITEM_ID = 900_002L;
+    private static final long FIRST_BOOKING_ID = 900_001L;
+    private static final long ARCHIVED_BOOKING_ID = 900_101L;
+
+    private static final ParameterizedTypeReference<List<BookingResponseDto>> BOOKING_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingPhaseTransitioner phaseTransitioner;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'owner', 'owner@reactive.test'), " +
+                "(?, 'booker', 'booker@reactive.test'), (?, 'stranger', 'stranger@reactive.test')",
+                OWNER_ID, BOOKER_ID, STRANGER_ID);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, 'Drill', 'Cordless drill', TRUE, ?), (?, 'Tent', 'Family tent', TRUE, ?)",
+                FIRST_ITEM_ID, OWNER_ID, SECOND_ITEM_ID, OWNER_ID);
+
+        LocalDateTime now = LocalDateTime.now();
+        long id = FIRST_BOOKING_ID;
+        for (int day = -6; day <= 6; day++) {
+            BookingStatus status = BookingStatus.values()[Math.floorMod(day, BookingStatus.values().length)];
+            LocalDateTime start = now.plusDays(day).minusHours(2);
+            insertBooking(id++, start, start.plusHours(4), day % 2 == 0 ? FIRST_ITEM_ID : SECOND_ITEM_ID, status);
+        }
+        // Два бронирования с одинаковым началом проверяют порядок по id внутри курсора
+        LocalDateTime sameStart = now.plusDays(10);
+        insertBooking(id++, sameStart, sameStart.plusHours(1), FIRST_ITEM_ID, BookingStatus.WAITING);
+        insertBooking(id, sameStart, sameStart.plusHours(1), SECOND_ITEM_ID, BookingStatus.WAITING);
+
+        // Архивные строки: одна старше всех, другая между бронированиями из bookings — ветки UNION ALL сливаются
+        insertArchived(ARCHIVED_BOOKING_ID, now.minusDays(30), FIRST_ITEM_ID);
+        insertArchived(ARCHIVED_BOOKING_ID + 1, now.minusDays(5).minusHours(5), SECOND_ITEM_ID);
+
+        // Строки вставлены с фазой по умолчанию, выставляем её так же, как планировщик
+        phaseTransitioner.advance();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM bookings_archive WHERE booker_id = ?", BOOKER_ID);
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", OWNER_ID);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", OWNER_ID, BOOKER_ID, STRANGER_ID);
+    }
+
+    @Test
+    void reactiveListsMatchBlockingListsForEveryState() {
+        for (BookingState state : BookingState.values()) {
+            for (String path : List.of("/bookings", "/bookings/owner")) {
+                long userId = path.endsWith("owner") ? OWNER_ID : BOOKER_ID;
+                String query = "?state=" + state + "&size=3";
+
+                ResponseEntity<List<BookingResponseDto>> first = get(path + query, userId);
+                assertEquals(first.getBody(), get("/reactive" + path + query, userId).getBody(),
+                        path + " first page, state " + state);
+
+                ResponseEntity<List<BookingResponseDto>> byFrom = get(path + query + "&from=3", userId);
+                assertEquals(byFrom.getBody(), get("/reactive" + path + query + "&from=3", userId).getBody(),
+                        path + " page from=3, state " + state);
+
+                String cursor = get(path + query + "&cursor=", userId).getHeaders().getFirst("X-Next-Cursor");
+                if (cursor != null) {
+                    String next = query + "&cursor=" + cursor;
+                    assertEquals(get(path + next, userId).getBody(), get("/reactive" + path + next, userId).getBody(),
+                            path + " page after cursor, state " + state);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reactiveListsCoverSeededBookings() {
+        List<BookingResponseDto> all = get("/reactive/bookings?size=100", BOOKER_ID).getBody();
+
+        assertNotNull(all);
+        assertEquals(17, all.size());
+        assertEquals(FIRST_BOOKING_ID + 14, all.get(0).getId());
+        assertEquals(FIRST_BOOKING_ID + 13, all.get(1).getId());
+        assertFalse(get("/reactive/bookings/owner?state=CURRENT", OWNER_ID).getBody().isEmpty());
+    }
+
+    @Test
+    void reactiveListsReturnSameErrors() {
+        ResponseEntity<String> unknownUser = getRaw("/reactive/bookings", 999_999_999L);
+        assertEquals(HttpStatus.NOT_FOUND, unknownUser.getStatusCode());
+        assertEquals(getRaw("/bookings", 999_999_999L).getBody(), unknownUser.getBody());
+
+        ResponseEntity<String> ownerWithoutItems = getRaw("/reactive/bookings/owner", STRANGER_ID);
+        assertEquals(HttpStatus.NOT_FOUND, ownerWithoutItems.getStatusCode());
+        assertEquals(getRaw("/bookings/owner", STRANGER_ID).getBody(), ownerWithoutItems.getBody());
+
+        assertEquals(HttpStatus.BAD_REQUEST, getRaw("/reactive/bookings?cursor=garbage", BOOKER_ID).getStatusCode());
+    }
+
+    @Test
+    void reactiveListsStreamAsNdjson() {
+        HttpHeaders headers = userHeader(BOOKER_ID);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+
+        ResponseEntity<String> response = rest.exchange("/reactive/bookings?size=4", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals(4, response.getBody().strip().split("\n").length);
+    }
+
+    private void insertBooking(long id, LocalDateTime start, LocalDateTime end, long itemId, BookingStatus status) {
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, BOOKER_ID, status.name());
+    }
+
+    private void insertArchived(long id, LocalDateTime start, long itemId) {
+        jdbcTemplate.update("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status, " +
+                        "archived_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(4)), itemId, BOOKER_ID,
+                BookingStatus.APPROVED.name(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> get(String url, long userId) {
+        ResponseEntity<List<BookingResponseDto>> response = rest.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(userHeader(userId)), BOOKING_LIST);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), url);
+        return response;
+    }
+
+    private ResponseEntity<String> getRaw(String url, long userId) {
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(userHeader(userId)), String.class);
+    }
+
+    private static HttpHeaders userHeader(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}